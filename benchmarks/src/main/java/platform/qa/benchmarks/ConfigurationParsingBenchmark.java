@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import platform.qa.entities.Configuration;
+import platform.qa.entities.User;
+import platform.qa.utils.ConfigurationUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of {@code platform.json} and {@code users.json} that is done by every {@code MasterConfig} and
+ * user provider. Resources are the README examples, see {@code src/main/resources/properties}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConfigurationParsingBenchmark {
+
+    @Benchmark
+    public Configuration uploadConfiguration() {
+        return ConfigurationUtils.uploadConfiguration("properties/platform.json");
+    }
+
+    @Benchmark
+    public Map<String, User> uploadUserConfiguration() {
+        return ConfigurationUtils.uploadUserConfiguration("properties/users.json", User.class);
+    }
+}
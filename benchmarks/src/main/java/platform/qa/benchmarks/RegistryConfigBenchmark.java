@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import platform.qa.benchmarks.stub.FakeCluster;
+import platform.qa.cache.UserProvisioningState;
+import platform.qa.configuration.RegistryConfig;
+import platform.qa.entities.Service;
+import platform.qa.entities.User;
+import platform.qa.utils.ConfigurationUtils;
+import platform.qa.utils.OkdClientPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path of resolved {@link RegistryConfig} getters against local fake cluster. {@code cachedGetter} is memoized
+ * service without user, {@code userBoundGetter} also provides its own copy of user with valid token, as every getter
+ * with user name does. Users are marked as provisioned, so keycloak admin API is not called, tokens are granted by
+ * the fake cluster once per user. API calls are printed after each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RegistryConfigBenchmark {
+    private static final String NAMESPACE = "registry-0";
+
+    @Param({"1", "8"})
+    private int users;
+
+    private FakeCluster cluster;
+    private Path stateFile;
+    private RegistryConfig registryConfig;
+    private String[] userNames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cluster = new FakeCluster(0, 30);
+        stateFile = Files.createTempFile("users", ".state");
+        System.setProperty("differentialProvisioning", "true");
+        System.setProperty("userProvisioningStateFile", stateFile.toString());
+
+        Service ocService = new Service(cluster.getUrl(), new User("fake-user", "fake-password"));
+        Service keycloak = new Service(cluster.getUrl(), new User("fake-user", "fake-password"));
+        //keycloak client is used only to create users, all users are marked as provisioned below
+        registryConfig = new RegistryConfig(ConfigurationUtils.uploadConfiguration("properties/platform.json"),
+                NAMESPACE, ocService, null, keycloak, null);
+
+        Map<String, User> testUsers = registryConfig.getRegistryUserProvider().getUserService().getTestUsers();
+        //scope of users requested without namespace by keycloak of registry
+        testUsers.values().forEach(user -> UserProvisioningState.markProvisioned(keycloak.getUrl() + "|null", user));
+        userNames = testUsers.keySet().stream().limit(users).toArray(String[]::new);
+
+        registryConfig.getDigitalDocument();
+        for (String userName : userNames) {
+            registryConfig.getDataFactory(userName);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%nfake cluster calls: %s%n", cluster.getCalls());
+        OkdClientPool.closeAll();
+        cluster.close();
+        System.clearProperty("differentialProvisioning");
+        System.clearProperty("userProvisioningStateFile");
+        Files.deleteIfExists(stateFile);
+        Files.deleteIfExists(stateFile.resolveSibling(stateFile.getFileName() + ".lock"));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Service cachedGetterSingleThread() {
+        return registryConfig.getDigitalDocument();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Service cachedGetterContended() {
+        return registryConfig.getDigitalDocument();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Service userBoundGetterSingleThread() {
+        return registryConfig.getDataFactory(nextUser());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Service userBoundGetterContended() {
+        return registryConfig.getDataFactory(nextUser());
+    }
+
+    private String nextUser() {
+        return userNames[ThreadLocalRandom.current().nextInt(userNames.length)];
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import platform.qa.cache.RouteIndex;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Route lookup of {@code OpenshiftServiceProvider.getRoute} on route tables of namespace and cluster size.
+ * {@code linearScan} reproduces the substring scan of all routes used before {@link RouteIndex} and is kept as
+ * a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouteIndexBenchmark {
+    private static final List<String> COMPONENTS = List.of("bpms", "bpms-admin", "user-settings", "data-factory",
+            "data-factory-external-platform", "data-factory-soap", "digital-signature-ops", "form-management-provider",
+            "form-management-modeler", "excerpt", "user-task-management", "user-process-management",
+            "process-history", "digital-document", "officer-portal", "citizen-portal", "admin-portal",
+            "redash-viewer", "redash-admin", "gerrit", "jenkins", "wiremock", "notification-service",
+            "process-webservice-gateway", "registry-management", "keycloak", "vault", "nexus", "kibana", "grafana");
+
+    @Param({"30", "500", "5000"})
+    private int routes;
+
+    private Map<String, String> table;
+    private RouteIndex index;
+    private String[] lookups;
+
+    @Setup
+    public void setUp() {
+        table = new LinkedHashMap<>();
+        for (int i = 0; table.size() < routes; i++) {
+            String component = COMPONENTS.get(i % COMPONENTS.size());
+            String name = i < COMPONENTS.size() ? component : component + "-registry-" + i / COMPONENTS.size();
+            table.put(name, "https://" + name + ".apps.cluster.example.com");
+        }
+        index = new RouteIndex(table);
+        lookups = table.keySet().toArray(String[]::new);
+    }
+
+    @Benchmark
+    public String indexedLookup() {
+        return index.find(nextLookup());
+    }
+
+    @Benchmark
+    public String coldIndexLookup() {
+        return new RouteIndex(table).find(nextLookup());
+    }
+
+    @Benchmark
+    public String linearScan() {
+        String route = nextLookup();
+        List<String> matchedRoutes =
+                table.keySet().stream().filter(name -> name.contains(route)).collect(Collectors.toList());
+        return matchedRoutes.size() == 1 ? table.get(matchedRoutes.get(0)) : table.get(route);
+    }
+
+    @Benchmark
+    public RouteIndex buildIndex() {
+        return new RouteIndex(table);
+    }
+
+    private String nextLookup() {
+        return lookups[ThreadLocalRandom.current().nextInt(lookups.length)];
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import platform.qa.benchmarks.stub.FakeCluster;
+import platform.qa.cache.RouteIndex;
+import platform.qa.entities.Service;
+import platform.qa.entities.ServiceConfiguration;
+import platform.qa.entities.User;
+import platform.qa.oc.OkdClient;
+import platform.qa.utils.OkdClientPool;
+import platform.qa.utils.OpenshiftServiceProvider;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route lookup of {@code OpenshiftServiceProvider.getRouteValue} as it is called by
+ * {@link OpenshiftServiceProvider#getService(OkdClient, ServiceConfiguration)} against local fake cluster:
+ * metrics scope, route cache of namespace and {@link RouteIndex} lookup. Routes are listed once per
+ * {@code routeCacheTtl}, so the measured path is the cached one. {@link RouteIndexBenchmark} measures the index alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouteLookupBenchmark {
+    @Param({"30", "500", "5000"})
+    private int routes;
+
+    private FakeCluster cluster;
+    private OkdClient ocClient;
+    private ServiceConfiguration[] configurations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cluster = new FakeCluster(0, routes);
+        ocClient = OkdClientPool.acquire(new Service(cluster.getUrl(), new User("fake-user", "fake-password")),
+                "registry-0");
+        configurations = cluster.getRouteNames().stream()
+                .map(name -> new ServiceConfiguration(name, null, "registry-0", name, false, 0))
+                .toArray(ServiceConfiguration[]::new);
+        OpenshiftServiceProvider.getService(ocClient, configurations[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nfake cluster calls: %s%n", cluster.getCalls());
+        OkdClientPool.closeAll();
+        cluster.close();
+    }
+
+    @Benchmark
+    public Service routeLookup() {
+        return OpenshiftServiceProvider.getService(ocClient,
+                configurations[ThreadLocalRandom.current().nextInt(configurations.length)]);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import platform.qa.benchmarks.stub.StubKeycloak;
+import platform.qa.entities.User;
+import platform.qa.services.KeycloakTokenService;
+import platform.qa.services.UserService;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserService#refreshUserToken(User)} called by many test threads against local stub of keycloak.
+ * Token lifetime slightly above {@code tokenExpirySkew} makes tokens expire every second, so concurrent renewals
+ * are measured together with valid token path. Grant counters are printed after each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-DtokenExpirySkew=30", "-DtokenBackgroundRefresh=false"})
+@Threads(16)
+public class TokenRefreshBenchmark {
+    @Param({"31", "300"})
+    private long tokenLifetimeSeconds;
+
+    @Param({"1", "8"})
+    private int users;
+
+    @Param({"5"})
+    private long keycloakLatencyMillis;
+
+    private StubKeycloak keycloak;
+    private UserService userService;
+    private User[] testUsers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        keycloak = new StubKeycloak(tokenLifetimeSeconds, keycloakLatencyMillis);
+
+        Map<String, User> configuration = new LinkedHashMap<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User("auto-user-" + i, "auto-user-" + i);
+            user.setRealm("registry-officer-portal");
+            user.setClientId("officer-portal");
+            configuration.put(user.getLogin(), user);
+        }
+        testUsers = configuration.values().toArray(User[]::new);
+        //keycloak client is used only when token endpoint rejects direct grants, stub always accepts them
+        userService = new UserService(configuration, null, new KeycloakTokenService(keycloak.getUrl()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nkeycloak password grants: %d, refresh grants: %d, user service: %s%n",
+                keycloak.getPasswordGrants(), keycloak.getRefreshGrants(), UserService.getTokenGrantStatistics());
+        keycloak.close();
+    }
+
+    @Benchmark
+    public User refreshUserToken() {
+        return userService.refreshUserToken(testUsers[ThreadLocalRandom.current().nextInt(testUsers.length)]);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks.bootstrap;
+
+import platform.qa.benchmarks.stub.FakeCluster;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macro-benchmark of cold bootstrap: every run is a fresh JVM executing {@link BootstrapRun} against
+ * {@link FakeCluster}, so {@code MasterConfig} singleton and all caches start empty.
+ * Reports p50/p99 bootstrap time and API calls per successful run for every scenario.
+ * Scenarios are combinations of system properties (comma separated lists):
+ * <ul>
+ *     <li>{@code latencies} - injected latency of every API call in milliseconds, default {@code 0,20,100}</li>
+ *     <li>{@code namespaces} - number of registry namespaces bootstrapped, default {@code 1,4}</li>
+ *     <li>{@code routes} - routes per namespace, default {@code 30,500}</li>
+ *     <li>{@code runs} - number of JVMs per scenario, default {@code 20}</li>
+ * </ul>
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          java -Dlatencies=50 -Dnamespaces=8 -cp target/benchmarks.jar
+ *                  platform.qa.benchmarks.bootstrap.BootstrapBenchmark
+ *      }
+ *  </p>
+ */
+public final class BootstrapBenchmark {
+
+    private BootstrapBenchmark() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = Integer.parseInt(System.getProperty("runs", "20"));
+
+        System.out.printf("%-10s %-10s %-8s %10s %10s %10s  %s%n", "latency", "namespaces", "routes", "p50 ms",
+                "p99 ms", "failed", "API calls per successful run");
+        for (long latency : getValues("latencies", "0,20,100")) {
+            for (long routes : getValues("routes", "30,500")) {
+                try (FakeCluster cluster = new FakeCluster(latency, (int) routes)) {
+                    for (long namespaces : getValues("namespaces", "1,4")) {
+                        List<Long> durations = new ArrayList<>();
+                        //calls of failed runs are not counted, so they don't skew calls per run
+                        Map<String, Long> calls = new TreeMap<>();
+                        for (int run = 0; run < runs; run++) {
+                            cluster.resetCalls();
+                            Long duration = runBootstrap(cluster, namespaces);
+                            if (duration != null) {
+                                durations.add(duration);
+                                cluster.getCalls()
+                                        .forEach((endpoint, count) -> calls.merge(endpoint, count, Long::sum));
+                            }
+                        }
+                        report(latency, namespaces, routes, durations, runs, calls);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Long runBootstrap(FakeCluster cluster, long namespaces) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Durl=" + cluster.getUrl(),
+                "-Dcluster=fake",
+                "-DbaseDomain=fake.local",
+                "-Dusername=fake-user",
+                "-Dpassword=fake-password",
+                "-Dnamespace=registry-0",
+                "-DbenchmarkNamespaces=" + namespaces,
+                BootstrapRun.class.getName())
+                .redirectErrorStream(true)
+                .start();
+
+        Long duration = null;
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                lines.add(line);
+                if (line.startsWith("BOOTSTRAP_MS ")) {
+                    duration = Long.parseLong(line.substring("BOOTSTRAP_MS ".length()).trim());
+                }
+            }
+        }
+        if (!process.waitFor(5, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+        }
+        if (process.isAlive() || process.exitValue() != 0 || duration == null) {
+            System.err.println("Bootstrap failed:");
+            lines.stream().skip(Math.max(0, lines.size() - 20)).forEach(System.err::println);
+            return null;
+        }
+        return duration;
+    }
+
+    private static void report(long latency, long namespaces, long routes, List<Long> durations, int runs,
+                               Map<String, Long> calls) {
+        Collections.sort(durations);
+        StringBuilder callsPerRun = new StringBuilder();
+        calls.forEach((endpoint, count) -> callsPerRun.append(String.format("%s=%.1f ", endpoint,
+                (double) count / durations.size())));
+        System.out.printf("%-10d %-10d %-8d %10s %10s %10d  %s%n", latency, namespaces, routes,
+                getPercentile(durations, 50), getPercentile(durations, 99), runs - durations.size(), callsPerRun);
+    }
+
+    //nearest-rank percentile
+    private static String getPercentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return "n/a";
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return String.valueOf(sorted.get(Math.max(0, rank - 1)));
+    }
+
+    private static long[] getValues(String property, String defaultValues) {
+        return Arrays.stream(System.getProperty(property, defaultValues).split(","))
+                .map(String::trim)
+                .mapToLong(Long::parseLong)
+                .toArray();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks.bootstrap;
+
+import platform.qa.configuration.MasterConfig;
+import platform.qa.configuration.RegistryConfig;
+import platform.qa.entities.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single cold bootstrap executed in a fresh JVM by {@link BootstrapBenchmark}: time from
+ * {@link MasterConfig#getInstance()} to resolved registry services of every namespace: service by route, port
+ * forwarded database and port forwarded redis sentinels.
+ * Result is printed as {@code BOOTSTRAP_MS <milliseconds>}.
+ */
+public final class BootstrapRun {
+
+    private BootstrapRun() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    public static void main(String[] args) {
+        int namespaces = Integer.parseInt(System.getProperty("benchmarkNamespaces", "1"));
+        long start = System.nanoTime();
+
+        MasterConfig masterConfig = MasterConfig.getInstance();
+        if (namespaces > 1) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < namespaces; i++) {
+                names.add("registry-" + i);
+            }
+            masterConfig.setNamespaces(names)
+                    .values()
+                    .forEach(BootstrapRun::resolveServices);
+        } else {
+            resolveServices(masterConfig.getRegistryConfig());
+        }
+
+        System.out.println("BOOTSTRAP_MS " + (System.nanoTime() - start) / 1_000_000);
+        System.exit(0);
+    }
+
+    private static void resolveServices(RegistryConfig registryConfig) {
+        requireUrl(registryConfig.getDigitalDocument());
+        if (registryConfig.getCitusMaster().getUrl() == null) {
+            throw new IllegalStateException("Database is not resolved");
+        }
+        if (registryConfig.getRedisList().isEmpty()) {
+            throw new IllegalStateException("Redis sentinels are not resolved");
+        }
+    }
+
+    private static void requireUrl(Service service) {
+        if (service == null || service.getUrl() == null) {
+            throw new IllegalStateException("Service is not resolved");
+        }
+    }
+}
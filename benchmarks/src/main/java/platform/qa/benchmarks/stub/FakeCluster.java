@@ -0,0 +1,254 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in of openshift API and keycloak for benchmarks. Serves OAuth token, routes, secrets, pods
+ * and keycloak token endpoints with injected latency and counts calls per endpoint.
+ * Every namespace has the same number of routes: components from {@code platform.json} first, generated ones after.
+ * Every namespace has pod {@code <component>-0} of each component labeled {@code app=<component>} and
+ * {@code <component>}, so database pods are found by label and forwarded, and {@value #SENTINELS} redis sentinel pods.
+ * Pods are filtered by label selector as API server does. Port forwards are opened, but the fake cluster does not
+ * accept their connections.
+ */
+public class FakeCluster implements Closeable {
+    private static final Pattern ROUTES = Pattern.compile("/apis/route\\.openshift\\.io/v1/namespaces/([^/]+)/routes");
+    private static final Pattern SECRET = Pattern.compile("/api/v1/namespaces/([^/]+)/secrets/([^/]+)");
+    private static final Pattern PODS = Pattern.compile("/api/v1/namespaces/([^/]+)/pods");
+    private static final Pattern POD = Pattern.compile("/api/v1/namespaces/([^/]+)/pods/([^/]+)");
+    private static final String[] COMPONENTS = {"keycloak", "jenkins", "gerrit", "ceph", "vault", "control-plane",
+            "data-factory", "data-factory-external-platform", "data-factory-external-system", "data-factory-soap",
+            "digital-signature-ops", "bpms", "user-settings", "form-management-provider", "form-management-modeler",
+            "excerpt", "user-task-management", "user-process-management", "process-history", "digital-document",
+            "process-webservice-gateway", "officer-portal", "citizen-portal", "admin-portal", "redash-viewer",
+            "redash-admin", "citus-master", "citus-replica"};
+    private static final int SENTINELS = 3;
+    //labels of pods by pod name, the same in every namespace
+    private static final Map<String, Map<String, String>> PODS_LABELS = getPodsLabels();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final int routesPerNamespace;
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+
+    public FakeCluster(long latencyMillis, int routesPerNamespace) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.routesPerNamespace = routesPerNamespace;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Provides number of calls per endpoint since the last reset
+     *
+     * @return {@link Map} of calls by endpoint sorted by endpoint
+     */
+    public Map<String, Long> getCalls() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        calls.forEach((endpoint, counter) -> snapshot.put(endpoint, counter.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Provides names of routes served in every namespace
+     *
+     * @return {@link List} of route names
+     */
+    public List<String> getRouteNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < routesPerNamespace; i++) {
+            names.add(i < COMPONENTS.length
+                    ? COMPONENTS[i]
+                    : COMPONENTS[i % COMPONENTS.length] + "-" + i / COMPONENTS.length);
+        }
+        return names;
+    }
+
+    public void resetCalls() {
+        calls.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getRequestBody().readAllBytes();
+            String path = exchange.getRequestURI().getPath();
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+
+            Matcher routes = ROUTES.matcher(path);
+            Matcher secret = SECRET.matcher(path);
+            Matcher pods = PODS.matcher(path);
+            Matcher pod = POD.matcher(path);
+            if (routes.matches()) {
+                count("list routes");
+                respond(exchange, 200, getRouteList(routes.group(1)));
+            } else if (secret.matches()) {
+                count("get secret");
+                respond(exchange, 200, getSecret(secret.group(1), secret.group(2)));
+            } else if (pods.matches()) {
+                count("list pods");
+                respond(exchange, 200, getPodList(pods.group(1), getLabelSelector(exchange.getRequestURI())));
+            } else if (pod.matches() && PODS_LABELS.containsKey(pod.group(2))) {
+                count("get pod");
+                respond(exchange, 200, getPod(pod.group(1), pod.group(2)));
+            } else if (path.endsWith("/.well-known/oauth-authorization-server")) {
+                count("oauth discovery");
+                respond(exchange, 200, String.format("{\"issuer\":\"%1$s\",\"authorization_endpoint\":"
+                        + "\"%1$s/oauth/authorize\",\"token_endpoint\":\"%1$s/oauth/token\"}", getUrl()));
+            } else if (path.startsWith("/oauth/authorize")) {
+                count("oauth token");
+                exchange.getResponseHeaders().set("Location",
+                        getUrl() + "/oauth/token/implicit#access_token=sha256~fake&expires_in=86400&token_type=Bearer");
+                respond(exchange, 302, "");
+            } else if (path.endsWith("/protocol/openid-connect/token")) {
+                count("keycloak token");
+                respond(exchange, 200, "{\"access_token\":\"fake\",\"expires_in\":300}");
+            } else {
+                count("other " + exchange.getRequestMethod() + " "
+                        + path.replaceAll("/namespaces/[^/]+", "/namespaces/*"));
+                respond(exchange, 200, "{}");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String getRouteList(String namespace) {
+        StringBuilder items = new StringBuilder();
+        for (String name : getRouteNames()) {
+            if (items.length() > 0) {
+                items.append(',');
+            }
+            items.append(String.format("{\"apiVersion\":\"route.openshift.io/v1\",\"kind\":\"Route\","
+                    + "\"metadata\":{\"name\":\"%1$s\",\"namespace\":\"%2$s\"},"
+                    + "\"spec\":{\"host\":\"%1$s-%2$s.apps.fake.local\",\"to\":{\"kind\":\"Service\","
+                    + "\"name\":\"%1$s\"}}}", name, namespace));
+        }
+        return "{\"apiVersion\":\"route.openshift.io/v1\",\"kind\":\"RouteList\",\"metadata\":{},\"items\":["
+                + items + "]}";
+    }
+
+    private static Map<String, Map<String, String>> getPodsLabels() {
+        Map<String, Map<String, String>> pods = new TreeMap<>();
+        for (String component : COMPONENTS) {
+            pods.put(component + "-0", Map.of("app", component, component, component));
+        }
+        for (int i = 0; i < SENTINELS; i++) {
+            pods.put("redis-sentinel-" + i, Map.of("app", "redis-sentinel"));
+        }
+        return pods;
+    }
+
+    private static String getPodList(String namespace, List<String> selectors) {
+        String items = PODS_LABELS.entrySet().stream()
+                .filter(pod -> selectors.stream().allMatch(selector -> isSelectorMatched(pod.getValue(), selector)))
+                .map(pod -> getPod(namespace, pod.getKey()))
+                .collect(Collectors.joining(","));
+        return "{\"kind\":\"PodList\",\"apiVersion\":\"v1\",\"metadata\":{},\"items\":[" + items + "]}";
+    }
+
+    private static String getPod(String namespace, String name) {
+        String labels = PODS_LABELS.get(name).entrySet().stream()
+                .map(label -> String.format("\"%s\":\"%s\"", label.getKey(), label.getValue()))
+                .collect(Collectors.joining(","));
+        return String.format("{\"apiVersion\":\"v1\",\"kind\":\"Pod\",\"metadata\":{\"name\":\"%s\","
+                + "\"namespace\":\"%s\",\"labels\":{%s}},\"status\":{\"phase\":\"Running\"}}", name, namespace, labels);
+    }
+
+    private static List<String> getLabelSelector(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return List.of();
+        }
+        return Arrays.stream(query.split("&"))
+                .filter(parameter -> parameter.startsWith("labelSelector="))
+                .flatMap(parameter -> Arrays.stream(URLDecoder.decode(parameter.substring("labelSelector=".length()),
+                        StandardCharsets.UTF_8).split(",")))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isSelectorMatched(Map<String, String> labels, String selector) {
+        String[] label = selector.split("=", 2);
+        return label.length == 2 ? label[1].equals(labels.get(label[0])) : labels.containsKey(label[0]);
+    }
+
+    private static String getSecret(String namespace, String name) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return String.format("{\"apiVersion\":\"v1\",\"kind\":\"Secret\",\"metadata\":{\"name\":\"%s\","
+                        + "\"namespace\":\"%s\"},\"data\":{\"username\":\"%s\",\"password\":\"%s\",\"user\":\"%s\"}}",
+                name, namespace, encoder.encodeToString("fake-user".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString("fake-password".getBytes(StandardCharsets.UTF_8)),
+                encoder.encodeToString("fake-user".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void count(String endpoint) {
+        calls.computeIfAbsent(endpoint, ignored -> new LongAdder()).increment();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, status == 302 ? -1 : bytes.length);
+        if (status != 302) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.benchmarks.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in of keycloak token endpoint that issues unsigned JWT tokens with configured lifetime and counts grants
+ */
+public class StubKeycloak implements Closeable {
+    private final HttpServer server;
+    private final long tokenLifetimeSeconds;
+    private final long latencyMillis;
+    private final AtomicLong passwordGrants = new AtomicLong();
+    private final AtomicLong refreshGrants = new AtomicLong();
+
+    public StubKeycloak(long tokenLifetimeSeconds, long latencyMillis) throws IOException {
+        this.tokenLifetimeSeconds = tokenLifetimeSeconds;
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public long getPasswordGrants() {
+        return passwordGrants.get();
+    }
+
+    public long getRefreshGrants() {
+        return refreshGrants.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (!exchange.getRequestURI().getPath().endsWith("/protocol/openid-connect/token")) {
+                respond(exchange, 404, "{}");
+                return;
+            }
+
+            (form.contains("grant_type=refresh_token") ? refreshGrants : passwordGrants).incrementAndGet();
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            respond(exchange, 200, String.format("{\"access_token\":\"%s\",\"refresh_token\":\"%s\","
+                            + "\"expires_in\":%d,\"refresh_expires_in\":%d}",
+                    createToken(tokenLifetimeSeconds), createToken(tokenLifetimeSeconds * 10),
+                    tokenLifetimeSeconds, tokenLifetimeSeconds * 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String createToken(long lifetimeSeconds) {
+        long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + lifetimeSeconds;
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8)) + ".";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.cache;
+
+import platform.qa.metrics.Metrics;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Thread safe memoization of lazily resolved values by key.
+ * Each key is resolved exactly once: threads that request a key while it is being resolved wait for the result of
+ * resolution in progress instead of starting their own. Failed resolution is not memoized, so the next call tries
+ * again. Value stays memoized only while dependencies registered by {@link #dependOn(BooleanSupplier)} during its
+ * resolution are valid, e.g. while port forward of memoized service is alive.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          Service bpms = memoizer.get("bpms", () -> OpenshiftServiceProvider.getService(ocClient, configuration));
+ *      }
+ *  </p>
+ */
+public final class Memoizer {
+    //dependencies of values that are being resolved by current thread, the innermost resolution is on top
+    private static final ThreadLocal<Deque<List<BooleanSupplier>>> RESOLVING =
+            ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Map<String, CompletableFuture<Resolved>> values = new ConcurrentHashMap<>();
+    private final String scope;
+
+    public Memoizer() {
+        this(null);
+    }
+
+    /**
+     * @param scope namespace or configuration name, resolutions are recorded in {@link Metrics} with this scope,
+     *              they are not recorded if scope is null
+     */
+    public Memoizer(String scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * Make values that are being resolved by current thread valid only while provided check passes.
+     * Values that depend on invalid check are resolved again on the next call. Does nothing if current thread does
+     * not resolve memoized value.
+     *
+     * @param isValid check of dependency, should be cheap as it is called on each memoized value access
+     */
+    public static void dependOn(BooleanSupplier isValid) {
+        List<BooleanSupplier> dependencies = RESOLVING.get().peek();
+        if (dependencies != null) {
+            dependencies.add(isValid);
+        }
+    }
+
+    /**
+     * Provides memoized value by key, value is resolved by supplier on first call
+     *
+     * @param key      value key
+     * @param supplier resolves value
+     * @param <T>      type of value
+     * @return memoized value
+     */
+    public <T> T get(String key, Supplier<T> supplier) {
+        return get(key, supplier, value -> true);
+    }
+
+    /**
+     * Provides memoized value by key, value is resolved again when memoized value is not valid anymore,
+     * e.g. it is expired. Only one thread resolves stale value, the others wait for the new one.
+     *
+     * @param key      value key
+     * @param supplier resolves value
+     * @param isValid  checks memoized value before it is returned
+     * @param <T>      type of value
+     * @return memoized value
+     */
+    public <T> T get(String key, Supplier<T> supplier, Predicate<T> isValid) {
+        return get(key, supplier, isValid, stale -> { });
+    }
+
+    /**
+     * Provides memoized value by key, value is resolved again when memoized value is not valid anymore.
+     * Stale value is released only by the thread that replaced it, so it is never released twice, e.g. closed.
+     *
+     * @param key      value key
+     * @param supplier resolves value
+     * @param isValid  checks memoized value before it is returned, should not release the value itself
+     * @param release  releases stale value after it was replaced
+     * @param <T>      type of value
+     * @return memoized value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> supplier, Predicate<T> isValid, Consumer<T> release) {
+        while (true) {
+            CompletableFuture<Resolved> future = values.get(key);
+            if (future == null) {
+                CompletableFuture<Resolved> created = new CompletableFuture<>();
+                if (values.putIfAbsent(key, created) == null) {
+                    return resolve(key, created, supplier);
+                }
+                continue;
+            }
+
+            if (!future.isDone()) {
+                return (T) inherit(ConcurrencyUtils.await(future)).value;
+            }
+
+            Resolved resolved = ConcurrencyUtils.await(future);
+            if (resolved.isValid() && isValid.test((T) resolved.value)) {
+                if (scope != null) {
+                    Metrics.cacheHit(Metrics.RESOLVE, scope, key);
+                }
+                return (T) inherit(resolved).value;
+            }
+
+            CompletableFuture<Resolved> created = new CompletableFuture<>();
+            if (values.replace(key, future, created)) {
+                release.accept((T) resolved.value);
+                return resolve(key, created, supplier);
+            }
+        }
+    }
+
+    /**
+     * Provides value by key only if it is already resolved, value is never resolved by this call
+     *
+     * @param key value key
+     * @param <T> type of value
+     * @return memoized value or null if value is missing, failed or is being resolved
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getIfResolved(String key) {
+        CompletableFuture<Resolved> future = values.get(key);
+        return isResolved(future) ? (T) future.join().value : null;
+    }
+
+    /**
+     * Provides snapshot of all resolved values, values that are being resolved are not included
+     *
+     * @param <T> type of values
+     * @return {@link Map} of resolved values by key
+     */
+    public <T> Map<String, T> getResolved() {
+        Map<String, T> resolved = new LinkedHashMap<>();
+        values.keySet().forEach(key -> {
+            T value = getIfResolved(key);
+            if (value != null) {
+                resolved.put(key, value);
+            }
+        });
+        return resolved;
+    }
+
+    /**
+     * Resolve value again and memoize it, threads that request the key meanwhile wait for the new value
+     *
+     * @param key      value key
+     * @param supplier resolves value
+     * @param <T>      type of value
+     * @return new value
+     */
+    public <T> T refresh(String key, Supplier<T> supplier) {
+        CompletableFuture<Resolved> created = new CompletableFuture<>();
+        values.put(key, created);
+        return resolve(key, created, supplier);
+    }
+
+    public boolean contains(String key) {
+        return isResolved(values.get(key));
+    }
+
+    public void invalidate(String key) {
+        values.remove(key);
+    }
+
+    /**
+     * Drop memoized value only if key is still resolved to provided value, so value that was already replaced is
+     * not dropped
+     *
+     * @param key   value key
+     * @param value expected memoized value
+     * @return true if value was dropped
+     */
+    public boolean invalidate(String key, Object value) {
+        CompletableFuture<Resolved> future = values.get(key);
+        return isResolved(future) && future.join().value == value && values.remove(key, future);
+    }
+
+    public void invalidateAll() {
+        values.clear();
+    }
+
+    private <T> T resolve(String key, CompletableFuture<Resolved> future, Supplier<T> supplier) {
+        Deque<List<BooleanSupplier>> resolving = RESOLVING.get();
+        List<BooleanSupplier> dependencies = new ArrayList<>();
+        resolving.push(dependencies);
+        try {
+            T value = scope != null ? Metrics.time(Metrics.RESOLVE, scope, key, supplier) : supplier.get();
+            resolving.pop();
+            future.complete(inherit(new Resolved(value, dependencies)));
+            return value;
+        } catch (Throwable e) {
+            if (resolving.peek() == dependencies) {
+                resolving.pop();
+            }
+            values.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    //value resolved inside resolution of another value is its dependency as well
+    private static Resolved inherit(Resolved resolved) {
+        List<BooleanSupplier> outer = RESOLVING.get().peek();
+        if (outer != null) {
+            outer.addAll(resolved.dependencies);
+        }
+        return resolved;
+    }
+
+    private static boolean isResolved(CompletableFuture<Resolved> future) {
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    private static final class Resolved {
+        private final Object value;
+        private final List<BooleanSupplier> dependencies;
+
+        private Resolved(Object value, List<BooleanSupplier> dependencies) {
+            this.value = value;
+            this.dependencies = dependencies;
+        }
+
+        private boolean isValid() {
+            for (BooleanSupplier dependency : dependencies) {
+                if (!dependency.getAsBoolean()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.cache;
+
+import static org.awaitility.Awaitility.await;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.openshift.api.model.Route;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.oc.OkdClient;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live cache of pods and routes of one namespace backed by k8s informers.
+ * Pods and routes are kept in memory and updated by watch events, so lookups don't list them from cluster.
+ * {@link RouteIndex} is built from routes in memory and is built again only after routes were changed.
+ * Cache is disabled by default and could be enabled by {@code informerCache} system property.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          List<Pod> pods = NamespaceInformerCache.get(ocClient).getPods();
+ *          String route = NamespaceInformerCache.get(ocClient).getRouteIndex().find("bpms");
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class NamespaceInformerCache {
+    private static final Memoizer CACHES = new Memoizer();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(NamespaceInformerCache::closeAll));
+    }
+
+    private final SharedIndexInformer<Pod> podInformer;
+    private final SharedIndexInformer<Route> routeInformer;
+    //incremented by every route event, index built from older routes is not kept
+    private long routeChanges;
+    private RouteIndex routeIndex;
+
+    private NamespaceInformerCache(OkdClient ocClient, String key) {
+        var osClient = ocClient.getOsClient();
+        podInformer = osClient.pods().inform();
+        routeInformer = osClient.routes().inform(new RouteChangeHandler());
+
+        await()
+                .atMost(1, TimeUnit.MINUTES)
+                .pollInterval(100, TimeUnit.MILLISECONDS)
+                .until(() -> podInformer.hasSynced() && routeInformer.hasSynced());
+        log.info("Informer cache started for {}", key);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("informerCache", "false"));
+    }
+
+    /**
+     * Provides informer cache for namespace of provided client, informers are started on first call.
+     * Concurrent calls for the same namespace wait for informers started by the first call.
+     *
+     * @param ocClient {@link OkdClient} client for k8s
+     * @return {@link NamespaceInformerCache} of client namespace
+     */
+    public static NamespaceInformerCache get(OkdClient ocClient) {
+        String key = CacheKey.of(ocClient);
+        return CACHES.get(key, () -> new NamespaceInformerCache(ocClient, key));
+    }
+
+    /**
+     * Stop all started informers
+     */
+    public static void closeAll() {
+        CACHES.<NamespaceInformerCache>getResolved().values().forEach(cache -> {
+            cache.podInformer.stop();
+            cache.routeInformer.stop();
+        });
+        CACHES.invalidateAll();
+    }
+
+    /**
+     * @return pods of namespace from informer store
+     */
+    public List<Pod> getPods() {
+        return podInformer.getStore().list();
+    }
+
+    /**
+     * Provides {@link RouteIndex} of routes from informer store, index is reused until routes are changed
+     *
+     * @return {@link RouteIndex} of namespace
+     */
+    public RouteIndex getRouteIndex() {
+        long changes;
+        synchronized (this) {
+            if (routeIndex != null) {
+                return routeIndex;
+            }
+            changes = routeChanges;
+        }
+
+        RouteIndex index = new RouteIndex(getRouteUrls());
+        synchronized (this) {
+            if (routeChanges == changes) {
+                routeIndex = index;
+            }
+        }
+        return index;
+    }
+
+    private Map<String, String> getRouteUrls() {
+        Map<String, String> routes = new HashMap<>();
+        routeInformer.getStore()
+                .list()
+                .stream()
+                .filter(route -> route.getMetadata() != null && route.getSpec() != null)
+                .filter(route -> route.getSpec().getHost() != null)
+                .forEach(route -> routes.put(route.getMetadata().getName(), getUrl(route)));
+        return routes;
+    }
+
+    private static String getUrl(Route route) {
+        var spec = route.getSpec();
+        return (spec.getTls() != null ? "https://" : "http://") + spec.getHost()
+                + Objects.requireNonNullElse(spec.getPath(), "");
+    }
+
+    private synchronized void onRouteChange() {
+        routeChanges++;
+        routeIndex = null;
+    }
+
+    private final class RouteChangeHandler implements ResourceEventHandler<Route> {
+        @Override
+        public void onAdd(Route route) {
+            onRouteChange();
+        }
+
+        @Override
+        public void onUpdate(Route oldRoute, Route newRoute) {
+            onRouteChange();
+        }
+
+        @Override
+        public void onDelete(Route route, boolean deletedFinalStateUnknown) {
+            onRouteChange();
+        }
+    }
+}
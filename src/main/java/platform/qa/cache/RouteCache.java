@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.cache;
+
+import platform.qa.metrics.Metrics;
+import platform.qa.oc.OkdClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared cache of {@link RouteIndex} per cluster and namespace.
+ * Routes are listed once per namespace and reused by all configurations until time to live is expired.
+ * Time to live in seconds is defined by {@code routeCacheTtl} system property, default is 300. Namespaces watched
+ * by {@link NamespaceInformerCache} provide routes from informer store instead.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          String route = RouteCache.getIndex(ocClient).find("bpms");
+ *      }
+ *  </p>
+ */
+public final class RouteCache {
+    private static final Memoizer INDEXES = new Memoizer();
+
+    private RouteCache() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Provides actual {@link RouteIndex} for namespace of provided client, routes are listed only if there is no
+     * cached index or it is expired. Concurrent calls for the same namespace list routes only once.
+     *
+     * @param ocClient {@link OkdClient} client for k8s
+     * @return {@link RouteIndex} of client namespace
+     */
+    public static RouteIndex getIndex(OkdClient ocClient) {
+        CachedIndex cached = INDEXES.get(CacheKey.of(ocClient), () -> new CachedIndex(
+                new RouteIndex(Metrics.time(Metrics.ROUTE_LIST, Metrics.namespaceOf(ocClient), "routes",
+                        ocClient::getOkdRoutes)),
+                System.nanoTime() + getTtlNanos()), RouteCache::isActual);
+        return cached.index;
+    }
+
+    /**
+     * Drop cached routes for namespace of provided client, next lookup lists routes again
+     *
+     * @param ocClient {@link OkdClient} client for k8s
+     */
+    public static void invalidate(OkdClient ocClient) {
+        INDEXES.invalidate(CacheKey.of(ocClient));
+    }
+
+    public static void invalidateAll() {
+        INDEXES.invalidateAll();
+    }
+
+    private static boolean isActual(CachedIndex cached) {
+        return cached.expiresAt - System.nanoTime() > 0;
+    }
+
+    /**
+     * Provides time to live of cached routes defined by {@code routeCacheTtl} system property
+     *
+     * @return time to live in milliseconds
+     */
+    public static long getTtlMillis() {
+        return TimeUnit.SECONDS.toMillis(Long.parseLong(System.getProperty("routeCacheTtl", "300")));
+    }
+
+    private static long getTtlNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(getTtlMillis());
+    }
+
+    private static final class CachedIndex {
+        private final RouteIndex index;
+        private final long expiresAt;
+
+        private CachedIndex(RouteIndex index, long expiresAt) {
+            this.index = index;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of k8s routes of one namespace with fast exact and substring lookup.
+ * Route names are indexed by trigrams, so substring lookup checks only names that contain every trigram of the
+ * requested route instead of scanning all routes. Lookup results are memoized for the snapshot lifetime.
+ */
+public final class RouteIndex {
+    private static final int GRAM_SIZE = 3;
+
+    private final Map<String, String> routes;
+    private final Map<String, List<String>> namesByGram = new HashMap<>();
+    private final Map<String, Optional<String>> lookups = new ConcurrentHashMap<>();
+
+    public RouteIndex(Map<String, String> routes) {
+        this.routes = Collections.unmodifiableMap(new HashMap<>(routes));
+        this.routes.keySet().forEach(name -> grams(name).forEach(gram ->
+                namesByGram.computeIfAbsent(gram, key -> new ArrayList<>()).add(name)));
+    }
+
+    /**
+     * Find route value by route name.
+     * If only one route name contains provided route - its value is returned, otherwise value of exact match.
+     *
+     * @param route route name or its part
+     * @return route value or null if route was not found
+     */
+    public String find(String route) {
+        return lookups.computeIfAbsent(route, key -> Optional.ofNullable(lookup(key))).orElse(null);
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    private String lookup(String route) {
+        List<String> matchedRoutes = new ArrayList<>();
+        for (String name : getCandidates(route)) {
+            if (name.contains(route)) {
+                matchedRoutes.add(name);
+            }
+        }
+        return matchedRoutes.size() == 1 ? routes.get(matchedRoutes.get(0)) : routes.get(route);
+    }
+
+    private Iterable<String> getCandidates(String route) {
+        if (route.length() < GRAM_SIZE) {
+            return routes.keySet();
+        }
+
+        List<String> candidates = null;
+        for (String gram : grams(route)) {
+            List<String> names = namesByGram.getOrDefault(gram, Collections.emptyList());
+            if (candidates == null || names.size() < candidates.size()) {
+                candidates = names;
+            }
+        }
+        return candidates;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * File cache shared by all JVMs of the same OS user on a machine, e.g. surefire forks, so values like user tokens and
+ * routes are obtained once instead of once per fork. Every key is stored in its own file under exclusive
+ * {@link FileLock}, so a fork that is obtaining value blocks the others only for the same key.
+ * Files are readable only by their owner. Secrets and port forwards are never shared.
+ * Enabled by {@code sharedCache} system property, directory is defined by {@code sharedCacheDir}.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          String token = SharedFileCache.get("token|" + realm + "/" + login,
+ *                  () -> new SharedFileCache.Entry(obtainToken(), expirationTime));
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class SharedFileCache {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    //file lock is held by JVM, so threads of the same JVM are serialized separately
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private SharedFileCache() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("sharedCache", "false"));
+    }
+
+    /**
+     * Provides value by key from shared cache, value is loaded and stored only if it is missing or expired.
+     * Loader is called while key is locked, so concurrent forks wait for its result instead of loading it again.
+     *
+     * @param key    cache key
+     * @param loader provides {@link Entry} to store, null value is returned to caller but not stored
+     * @return cached or loaded value
+     */
+    public static String get(String key, Supplier<Entry> loader) {
+        return withLock(key, channel -> {
+            Entry cached = read(channel);
+            if (cached != null && cached.getExpireTime() > System.currentTimeMillis()) {
+                return cached.getValue();
+            }
+
+            Entry loaded = loader.get();
+            if (loaded != null && loaded.getValue() != null) {
+                write(channel, loaded);
+            }
+            return loaded != null ? loaded.getValue() : null;
+        });
+    }
+
+    /**
+     * Drop value by key, so it is loaded again by the next call
+     *
+     * @param key cache key
+     */
+    public static void invalidate(String key) {
+        withLock(key, channel -> channel.truncate(0));
+    }
+
+    @SneakyThrows
+    private static <T> T withLock(String key, LockedAction<T> action) {
+        Path file = getFile(key);
+        synchronized (LOCKS.computeIfAbsent(file.toString(), ignored -> new Object())) {
+            try (FileChannel channel = open(file);
+                 FileLock ignored = channel.lock()) {
+                return action.apply(channel);
+            }
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        Set<StandardOpenOption> options =
+                EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return isPosix()
+                ? FileChannel.open(file, options, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE))
+                : FileChannel.open(file, options);
+    }
+
+    private static Entry read(FileChannel channel) {
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            channel.position(0);
+            while (channel.read(buffer) > 0) {
+                content.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            return content.size() == 0 ? null : MAPPER.readValue(content.toByteArray(), Entry.class);
+        } catch (IOException e) {
+            log.debug("Shared cache entry is ignored: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void write(FileChannel channel, Entry entry) throws IOException {
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(MAPPER.writeValueAsBytes(entry)), 0);
+        channel.force(false);
+    }
+
+    @SneakyThrows
+    private static Path getFile(String key) {
+        Path directory = Paths.get(System.getProperty("sharedCacheDir", Paths.get(System.getProperty("java.io.tmpdir"),
+                "platform-qa-config-" + System.getProperty("user.name")).toString()));
+        if (Files.notExists(directory)) {
+            if (isPosix()) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+            } else {
+                Files.createDirectories(directory);
+            }
+        }
+        return directory.resolve(getFileName(key));
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    @SneakyThrows
+    private static String getFileName(String key) {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            name.append(String.format("%02x", hash[i]));
+        }
+        return name.append(".json").toString();
+    }
+
+    /**
+     * Cached value with time in milliseconds since epoch when it expires
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static final class Entry {
+        private String value;
+        private long expireTime;
+    }
+
+    @FunctionalInterface
+    private interface LockedAction<T> {
+        T apply(FileChannel channel) throws IOException;
+    }
+}
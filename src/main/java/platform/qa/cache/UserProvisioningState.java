@@ -0,0 +1,232 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.cache;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.entities.User;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisted fingerprints of users created in keycloak, so reruns skip users whose definition was not changed.
+ * Fingerprint is SHA-256 of user definition as it is applied (realm, roles, attributes, credentials) without token.
+ * Enabled by {@code differentialProvisioning} system property, state is kept in file defined by
+ * {@code userProvisioningStateFile} and is trusted for {@code userProvisioningStateTtl} hours, default is 24.
+ * State file is shared by all JVMs on a machine: it is re-read on each check and updated under exclusive
+ * {@link FileLock}, so users created by concurrent forks are merged instead of overwritten.
+ * User is not looked up in keycloak, so user skipped by the state is forgotten when it fails to log in.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          if (!UserProvisioningState.isProvisioned(scope, user)) {
+ *              keycloakClient.createUser(user);
+ *              UserProvisioningState.markProvisioned(scope, user);
+ *          }
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class UserProvisioningState {
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+    //file lock is held by JVM, so threads of the same JVM are serialized separately
+    private static final Object LOCK = new Object();
+
+    private UserProvisioningState() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("differentialProvisioning", "false"));
+    }
+
+    /**
+     * Check if user with the same definition was created in scope recently
+     *
+     * @param scope keycloak and namespace the user is created for
+     * @param user  {@link User} as it will be created
+     * @return true if user definition was not changed since the last creation and state is not expired
+     */
+    public static boolean isProvisioned(String scope, User user) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        String state = load().getProperty(getKey(scope, user));
+        if (state == null) {
+            return false;
+        }
+
+        String[] values = state.split(";");
+        return values.length == 2
+                && values[0].equals(getFingerprint(scope, user))
+                && System.currentTimeMillis() - Long.parseLong(values[1]) < getTtlMillis();
+    }
+
+    /**
+     * Remember definition of user created in scope, state file is updated right away.
+     * State is re-read under lock, so users remembered by other JVMs meanwhile are kept.
+     *
+     * @param scope keycloak and namespace the user is created for
+     * @param user  created {@link User}
+     */
+    public static void markProvisioned(String scope, User user) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        withLock(() -> {
+            Properties state = load();
+            state.setProperty(getKey(scope, user), getFingerprint(scope, user) + ";" + System.currentTimeMillis());
+            save(state);
+        });
+    }
+
+    /**
+     * Forget user created in scope, so it is created again on the next check.
+     * Used when user skipped by the state fails to log in, e.g. it was deleted from keycloak meanwhile.
+     *
+     * @param scope keycloak and namespace the user is created for
+     * @param user  {@link User} to forget
+     */
+    public static void forget(String scope, User user) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        withLock(() -> {
+            Properties state = load();
+            if (state.remove(getKey(scope, user)) != null) {
+                save(state);
+            }
+        });
+    }
+
+    /**
+     * Forget all users, so all of them are created again on the next run
+     */
+    public static void clear() {
+        withLock(() -> save(new Properties()));
+    }
+
+    @SneakyThrows
+    static String getFingerprint(String scope, User user) {
+        ObjectNode definition = MAPPER.valueToTree(user);
+        definition.remove("token");
+        definition.remove("tokenExpireTime");
+        definition.put("scope", scope);
+
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(MAPPER.writeValueAsBytes(definition));
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte value : hash) {
+            fingerprint.append(String.format("%02x", value));
+        }
+        return fingerprint.toString();
+    }
+
+    private static String getKey(String scope, User user) {
+        return scope + "|" + user.getRealm() + "/" + user.getLogin();
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        Path file = getStateFile();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                log.warn("User provisioning state {} is ignored: {}", file, e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    //lock is taken on separate file, as state file itself is replaced on each save
+    private static void withLock(Runnable action) {
+        Path file = getStateFile().toAbsolutePath();
+        synchronized (LOCK) {
+            try {
+                Files.createDirectories(file.getParent());
+                try (FileChannel channel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock ignored = channel.lock()) {
+                    action.run();
+                }
+            } catch (IOException e) {
+                log.warn("User provisioning state {} is not locked: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    //state is written to temporary file and moved, so readers never see partially written file
+    private static void save(Properties state) {
+        Path file = getStateFile().toAbsolutePath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(file.getParent(), "users", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                state.store(writer, "platform-qa-config user provisioning state");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("User provisioning state {} is not saved: {}", file, e.getMessage());
+        } finally {
+            deleteIfExists(temp);
+        }
+    }
+
+    private static void deleteIfExists(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.debug("Temporary user provisioning state {} is not deleted: {}", temp, e.getMessage());
+        }
+    }
+
+    private static Path getStateFile() {
+        return Paths.get(System.getProperty("userProvisioningStateFile",
+                Paths.get(System.getProperty("java.io.tmpdir"), "platform-qa-config", "users.state").toString()));
+    }
+
+    private static long getTtlMillis() {
+        return TimeUnit.HOURS.toMillis(Long.parseLong(System.getProperty("userProvisioningStateTtl", "24")));
+    }
+}
@@ -18,18 +18,20 @@ package platform.qa.configuration;
 
 import io.fabric8.openshift.api.model.operatorhub.v1alpha1.CatalogSource;
 import lombok.Getter;
+import platform.qa.cache.Memoizer;
 import platform.qa.entities.CentralConfiguration;
 import platform.qa.entities.Configuration;
 import platform.qa.entities.Service;
 import platform.qa.entities.ServiceConfiguration;
 import platform.qa.entities.User;
 import platform.qa.keycloak.KeycloakClient;
+import platform.qa.metrics.Metrics;
 import platform.qa.oc.OkdClient;
 import platform.qa.providers.impl.PlatformUserProvider;
+import platform.qa.utils.OkdClientPool;
 import platform.qa.utils.OpenshiftServiceProvider;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Initiate and store Central services.
@@ -38,176 +40,87 @@ import java.util.concurrent.atomic.AtomicReference;
 public final class CentralConfig {
     private final CentralConfiguration configuration;
 
-    private Service ceph;
-    private Service kibana;
-    private Service kiali;
-    private Service jaeger;
-    private Service defaultGrafana;
-    private Service customGrafana;
-    private Service jenkins;
-    private Service gerrit;
-    private Service keycloak;
-    private Service wiremock;
-    private Service controlPlane;
-    private Service nexus;
-    private Service email;
-
-    private KeycloakClient keycloakClient;
+    private final Memoizer cache = new Memoizer("central");
+
     @Getter
     private Service ocService;
     @Getter
     private PlatformUserProvider platformUserProvider;
 
-    private Service vaultService;
-
-    private AtomicReference<User> controlPlaneUser = new AtomicReference<>();
-
     public CentralConfig(Configuration configuration, Service ocService) {
         this.configuration = configuration.getCentralConfiguration();
         this.ocService = ocService;
-        platformUserProvider = new PlatformUserProvider(ocService, getKeycloakClient(), "properties/platform-users"
-                + ".json");
+        platformUserProvider = new PlatformUserProvider(ocService, getKeycloakClient(), getKeycloak(),
+                "properties/platform-users.json");
     }
 
     public Service getCeph() {
-        if (ceph != null) {
-            return ceph;
-        }
-
-        ceph = getService(configuration.getCeph());
-        return ceph;
+        return cache.get("ceph", () -> getService(configuration.getCeph()));
     }
 
     public Service getKibana() {
-        if (kibana != null) {
-            return kibana;
-        }
-
-        kibana = getService(configuration.getKibana());
-        return kibana;
+        return cache.get("kibana", () -> getService(configuration.getKibana()));
     }
 
     public Service getKiali() {
-        if (kiali != null) {
-            return kiali;
-        }
-
-        kiali = getService(configuration.getKiali());
-        return kiali;
+        return cache.get("kiali", () -> getService(configuration.getKiali()));
     }
 
     public Service getJager() {
-        if (jaeger != null) {
-            return jaeger;
-        }
-
-        jaeger = getService(configuration.getJager());
-        return jaeger;
+        return cache.get("jaeger", () -> getService(configuration.getJager()));
     }
 
     public Service getDefaultGrafana() {
-        if (defaultGrafana != null) {
-            return defaultGrafana;
-        }
-
-        defaultGrafana = getService(configuration.getDefaultGrafana());
-        return defaultGrafana;
+        return cache.get("defaultGrafana", () -> getService(configuration.getDefaultGrafana()));
     }
 
     public Service getCustomGrafana() {
-        if (customGrafana != null) {
-            return customGrafana;
-        }
-
-        customGrafana = getService(configuration.getCustomGrafana());
-        return customGrafana;
+        return cache.get("customGrafana", () -> getService(configuration.getCustomGrafana()));
     }
 
     public Service getJenkins() {
-        if (jenkins != null) {
-            return jenkins;
-        }
-
-        jenkins = getServiceWithUser(configuration.getJenkins());
-        return jenkins;
+        return cache.get("jenkins", () -> getServiceWithUser(configuration.getJenkins()));
     }
 
     public Service getGerrit() {
-        if (gerrit != null) {
-            return gerrit;
-        }
-
-        gerrit = getServiceWithUser(configuration.getGerrit());
-        return gerrit;
+        return cache.get("gerrit", () -> getServiceWithUser(configuration.getGerrit()));
     }
 
     public Service getKeycloak() {
-        if (keycloak != null) {
-            return keycloak;
-        }
-
-        keycloak = getServiceWithUser(configuration.getKeycloak());
-        return keycloak;
+        return cache.get("keycloak", () -> getServiceWithUser(configuration.getKeycloak()));
     }
 
     public Service getVaultService() {
-        if (vaultService != null) {
-            return vaultService;
-        }
-
-        vaultService = getServiceVaultWithToken(configuration.getVault());
-        return vaultService;
+        return cache.get("vault", () -> getServiceVaultWithToken(configuration.getVault()));
     }
 
     public Service getWiremock() {
-        if (wiremock != null) {
+        return cache.get("wiremock", () -> {
+            Service wiremock = getService(configuration.getWiremock());
+            String wiremockUrl = wiremock.getUrl();
+            wiremock.setUrl(wiremockUrl != null ? wiremockUrl.replaceAll("https://", "").replaceAll("/$", "") : null);
             return wiremock;
-        }
-
-        wiremock = getService(configuration.getWiremock());
-        String wiremockUrl = wiremock.getUrl();
-        wiremock.setUrl(wiremockUrl != null ? wiremockUrl.replaceAll("https://", "").replaceAll("/$", "") : null);
-        return wiremock;
+        });
     }
 
     public Service getControlPlane() {
-        if (controlPlane != null) {
-            return controlPlane;
-        }
-
-        controlPlane = getService(configuration.getControlPlane());
-        return controlPlane;
+        return cache.get("controlPlane", () -> getService(configuration.getControlPlane()));
     }
 
     public Service getNexus() {
-        if (nexus != null) {
-            return nexus;
-        }
-
-        nexus = getService(configuration.getNexus());
-        return nexus;
+        return cache.get("nexus", () -> getService(configuration.getNexus()));
     }
 
     public Service getEmail() {
-        if (email != null) {
-            return email;
-        }
-
-        email = getService(configuration.getEmail());
-        return email;
+        return cache.get("email", () -> getService(configuration.getEmail()));
     }
 
     public KeycloakClient getKeycloakClient() {
-        if (keycloakClient != null) {
-            return keycloakClient;
-        }
-
-        keycloakClient = new KeycloakClient(getKeycloak());
-        return keycloakClient;
+        return cache.get("keycloakClient", () -> new KeycloakClient(getKeycloak()));
     }
 
     public List<CatalogSource> getClusterSources() {
-        return new OkdClient(ocService).getClusterSources();
+        return OkdClientPool.execute(ocService, null, OkdClient::getClusterSources);
     }
 
     private Service getServiceVaultWithToken(ServiceConfiguration configuration) {
@@ -226,11 +139,15 @@ public final class CentralConfig {
     }
 
     private String getTokenForService(ServiceConfiguration configuration) {
-        return new OkdClient(ocService, configuration.getNamespace()).getTokenVault(configuration.getSecret());
+        return Metrics.time(Metrics.SECRET, configuration.getNamespace(), configuration.getSecret(),
+                () -> OkdClientPool.execute(ocService, configuration.getNamespace(),
+                        ocClient -> ocClient.getTokenVault(configuration.getSecret())));
     }
 
     private User getUserForService(ServiceConfiguration configuration) {
-        return new OkdClient(ocService, configuration.getNamespace()).getCredentials(configuration.getSecret());
+        return Metrics.time(Metrics.SECRET, configuration.getNamespace(), configuration.getSecret(),
+                () -> OkdClientPool.execute(ocService, configuration.getNamespace(),
+                        ocClient -> ocClient.getCredentials(configuration.getSecret())));
     }
 
     public Service getService(ServiceConfiguration configuration) {
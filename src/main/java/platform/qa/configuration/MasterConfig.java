@@ -19,18 +19,25 @@ package platform.qa.configuration;
 import jodd.util.Base64;
 import lombok.Getter;
 import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
 import platform.qa.entities.CentralConfiguration;
 import platform.qa.entities.Configuration;
 import platform.qa.entities.RegistryConfiguration;
 import platform.qa.entities.Service;
+import platform.qa.entities.TaskResult;
 import platform.qa.entities.User;
 import platform.qa.exceptions.ConfigurationExceptions;
 import platform.qa.keycloak.KeycloakClient;
+import platform.qa.metrics.Metrics;
+import platform.qa.utils.ConcurrencyUtils;
 import platform.qa.utils.ConfigurationUtils;
 
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Load initial configuration for Central and Registry services.
@@ -43,8 +50,9 @@ import java.util.Map;
  * }
  * </p>
  */
+@Log4j2
 public final class MasterConfig {
-    private static MasterConfig instance;
+    private static volatile MasterConfig instance;
 
     @Getter
     private final Configuration configuration;
@@ -59,7 +67,8 @@ public final class MasterConfig {
     private final String cluster;
     @Getter
     private final String baseDomain;
-    private final Map<String, RegistryConfig> registryConfigs = new HashMap<>();
+    private final Map<String, RegistryConfig> registryConfigs = new ConcurrentHashMap<>();
+    private final int namespaceParallelism;
 
     private MasterConfig() {
         configuration = ConfigurationUtils.uploadConfiguration("properties/platform.json");
@@ -83,29 +92,69 @@ public final class MasterConfig {
                 cluster, baseDomain
         );
 
+        namespaceParallelism = Integer.parseInt(System.getProperty("namespaceParallelism") != null ?
+                System.getProperty("namespaceParallelism") : properties.getProperty("namespaceParallelism", "4"));
+
         oc = new Service(ocUrl, ocUser);
-        centralConfig = new CentralConfig(configuration, oc);
+        centralConfig = Metrics.time(Metrics.BOOTSTRAP, "central", "CentralConfig",
+                () -> new CentralConfig(configuration, oc));
         keycloakClient = centralConfig.getKeycloakClient();
     }
 
+    /**
+     * Initialize {@link RegistryConfig} for each namespace in parallel.
+     * Parallelism is defined by {@code namespaceParallelism} property. Failure of one namespace does not interrupt
+     * the others, but when all namespaces are completed the failed ones are thrown as
+     * {@link ConfigurationExceptions.InitializationFailedException}; successful namespaces stay available via
+     * {@link #getRegistryConfig(String)}.
+     *
+     * @param namespaces registry namespaces
+     * @return {@link Map} of initialized {@link RegistryConfig} by namespace
+     */
     public Map<String, RegistryConfig> setNamespaces(List<String> namespaces) {
-        namespaces.forEach(namespace ->
-                registryConfigs.put(
-                        namespace,
-                        new RegistryConfig(configuration, namespace, oc, keycloakClient, centralConfig.getCeph()
-                        )
-                )
-        );
+        ConcurrencyUtils.requireSuccessful(bootstrapNamespaces(namespaces, namespaceParallelism), "Namespaces");
         return registryConfigs;
     }
 
-    public RegistryConfig getRegistryConfig() {
-        if (!registryConfigs.containsKey(defaultNamespace)) {
-            registryConfigs.put(defaultNamespace, new RegistryConfig(configuration, defaultNamespace, oc,
-                    keycloakClient, centralConfig.getCeph()));
-        }
+    /**
+     * Initialize {@link RegistryConfig} for each namespace in parallel.
+     * Failure of one namespace does not interrupt initialization of the others.
+     *
+     * @param namespaces  registry namespaces
+     * @param parallelism max number of namespaces initialized at the same time
+     * @return {@link Map} of {@link TaskResult} with {@link RegistryConfig} or error and bootstrap time by namespace
+     */
+    public Map<String, TaskResult<RegistryConfig>> bootstrapNamespaces(List<String> namespaces, int parallelism) {
+        //ceph and keycloak are shared by all registries, so they are resolved once before parallel initialization
+        Service ceph = centralConfig.getCeph();
+        Service keycloak = centralConfig.getKeycloak();
+
+        Map<String, Callable<RegistryConfig>> tasks = new LinkedHashMap<>();
+        namespaces.forEach(namespace -> tasks.put(namespace, () -> {
+            RegistryConfig registryConfig = Metrics.time(Metrics.BOOTSTRAP, namespace, "RegistryConfig",
+                    () -> new RegistryConfig(configuration, namespace, oc, keycloakClient, keycloak, ceph));
+            registryConfigs.put(namespace, registryConfig);
+            return registryConfig;
+        }));
+
+        Map<String, TaskResult<RegistryConfig>> results = ConcurrencyUtils.invokeAll(tasks, parallelism);
+        results.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(result -> -result.getValue().getDurationMillis()))
+                .forEach(result -> {
+                    if (result.getValue().isSuccessful()) {
+                        log.info("Namespace {} initialized in {} ms", result.getKey(),
+                                result.getValue().getDurationMillis());
+                    } else {
+                        log.error("Namespace {} failed in {} ms: {}", result.getKey(),
+                                result.getValue().getDurationMillis(), result.getValue().getError().getMessage());
+                    }
+                });
+        return results;
+    }
 
-        return registryConfigs.get(defaultNamespace);
+    public RegistryConfig getRegistryConfig() {
+        return registryConfigs.computeIfAbsent(defaultNamespace, this::createRegistryConfig);
     }
 
     @SneakyThrows(ConfigurationExceptions.MissingNamespaceInConfiguration.class)
@@ -117,6 +166,12 @@ public final class MasterConfig {
         return registryConfigs.get(namespace);
     }
 
+    private RegistryConfig createRegistryConfig(String namespace) {
+        return Metrics.time(Metrics.BOOTSTRAP, namespace, "RegistryConfig",
+                () -> new RegistryConfig(configuration, namespace, oc, keycloakClient, centralConfig.getKeycloak(),
+                        centralConfig.getCeph()));
+    }
+
     /**
      * Provides instance of {@link MasterConfig}
      *
@@ -127,7 +182,11 @@ public final class MasterConfig {
             return instance;
         }
 
-        instance = new MasterConfig();
-        return instance;
+        synchronized (MasterConfig.class) {
+            if (instance == null) {
+                instance = Metrics.time(Metrics.BOOTSTRAP, "-", "MasterConfig", MasterConfig::new);
+            }
+            return instance;
+        }
     }
 }
@@ -17,25 +17,38 @@
 package platform.qa.configuration;
 
 import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.cache.Memoizer;
 import platform.qa.entities.Ceph;
 import platform.qa.entities.Configuration;
 import platform.qa.entities.Db;
 import platform.qa.entities.Redis;
 import platform.qa.entities.RegistryConfiguration;
 import platform.qa.entities.Service;
+import platform.qa.entities.ServiceConfiguration;
+import platform.qa.entities.TaskResult;
 import platform.qa.entities.User;
 import platform.qa.enumeration.CitusUsers;
 import platform.qa.keycloak.KeycloakClient;
+import platform.qa.metrics.Metrics;
 import platform.qa.oc.OkdClient;
 import platform.qa.providers.impl.RegistryUserProvider;
+import platform.qa.services.UserService;
+import platform.qa.utils.ConcurrencyUtils;
+import platform.qa.utils.OkdClientPool;
 import platform.qa.utils.OpenshiftServiceProvider;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
 /**
  * Initiate and store Central services.
  * Central services defined in {@link RegistryConfig}
  */
+@Log4j2
 public final class RegistryConfig {
     private final String namespace;
     private final RegistryConfiguration configuration;
@@ -49,540 +62,336 @@ public final class RegistryConfig {
     @Getter
     private RegistryUserProvider registryUserProvider;
 
-    private User citusAdminRole;
-    private User citusApplicationRole;
-    private User citusRegistryOwnerRole;
-    private User citusSettingsRole;
-    private User citusAuditRole;
-    private User citusAnalyticsRole;
-    private User citusExcerptExportedRole;
-    private User citusExcerptRole;
-    private User citusExcerptWorkerRole;
-
-
-    private Db citusMaster;
-    private Db citusReplica;
-
-    private Service registryManagement;
-    private Service dataFactorySoap;
-    private Service dataFactory;
-    private Service dataFactoryExternalPlatform;
-    private Service dataFactoryExternalSystem;
-    private Service dataFactoryPublicApiSystem;
-    private Service digitalSignatureOps;
-    private Service userSettings;
-    private Service bpms;
-    private Service formManagementProvider;
-    private Service formManagementModeler;
-    private Service formSchemaProvider;
-    private Service excerpt;
-    private Service userTaskManagement;
-    private Service userProcessManagement;
-    private Service digitalDocument;
-    private Service officerPortal;
-    private Service citizenPortal;
-    private Service adminPortal;
-    private Service processHistory;
-    private Service processWebserviceGateway;
-    private Service redashViewer;
-    private Service redashAdmin;
-    private Service gerrit;
-    private Service jenkins;
-    private Service notificationService;
-    private Service wiremock;
-    private Ceph fileDataCeph;
-    private Ceph fileLowcodeCeph;
-    private Ceph excerptCeph;
-
-    private Redis redis;
-    private List<Redis> redisServices;
+    private final Memoizer cache;
 
     public RegistryConfig(Configuration configuration,
                           String namespace,
                           Service ocService,
                           KeycloakClient keycloakClient,
                           Service ceph) {
+        this(configuration, namespace, ocService, keycloakClient, null, ceph);
+    }
+
+    /**
+     * @param keycloak central keycloak {@link Service}, its token endpoint is used to renew user tokens
+     *                 with refresh token grant
+     */
+    public RegistryConfig(Configuration configuration,
+                          String namespace,
+                          Service ocService,
+                          KeycloakClient keycloakClient,
+                          Service keycloak,
+                          Service ceph) {
         this.configuration = configuration.getRegistryConfiguration();
         this.keycloakClient = keycloakClient;
         this.ceph = ceph;
         this.namespace = namespace;
         oc = ocService;
-
-        ocClient = new OkdClient(ocService, namespace);
-        registryUserProvider = new RegistryUserProvider(namespace, keycloakClient, "properties/users.json");
+        cache = new Memoizer(namespace);
+
+        ocClient = OkdClientPool.acquire(ocService, namespace);
+        registryUserProvider = new RegistryUserProvider(namespace, keycloakClient, keycloak, "properties/users.json");
+        registryUserProvider.getUserService()
+                .setProvisioningScope(keycloak != null ? keycloak.getUrl() : ocService.getUrl());
+    }
+
+    /**
+     * Resolve in parallel all configured registry services that do not require a registry user.
+     * Services that failed are logged and resolved again lazily on the first getter call.
+     * Intended to be called once per test class, e.g. from {@code @BeforeAll}:
+     * <p>
+     * {@code
+     * MasterConfig.getInstance().getRegistryConfig().warmUpAll();
+     * }
+     * </p>
+     *
+     * @return {@link Map} of {@link TaskResult} by service name
+     */
+    public Map<String, TaskResult<Object>> warmUpAll() {
+        return prefetch(getWarmUpTasks(null));
+    }
+
+    /**
+     * Resolve in parallel all configured registry services, services with user are resolved for provided user
+     *
+     * @param userName registry user name from users.json
+     * @return {@link Map} of {@link TaskResult} by service name
+     */
+    public Map<String, TaskResult<Object>> warmUpAll(String userName) {
+        //user is initialized before parallel resolution, so it is not created by several threads at once
+        registryUserProvider.get(userName);
+        return prefetch(getWarmUpTasks(userName));
+    }
+
+    /**
+     * Create all configured registry users in keycloak in parallel, so tests don't wait for user creation
+     *
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionUsers() {
+        return registryUserProvider.provisionAll();
+    }
+
+    /**
+     * Resolve provided getters in parallel, parallelism is defined by {@code warmUpParallelism} system property
+     *
+     * @param getters getters of {@link RegistryConfig} by service name
+     * @return {@link Map} of {@link TaskResult} by service name
+     */
+    public Map<String, TaskResult<Object>> prefetch(Map<String, Callable<Object>> getters) {
+        int parallelism = Integer.parseInt(System.getProperty("warmUpParallelism", "8"));
+        Map<String, TaskResult<Object>> results = ConcurrencyUtils.invokeAll(getters, parallelism);
+
+        results.forEach((name, result) -> {
+            if (result.isSuccessful()) {
+                log.debug("Service {} in namespace {} resolved in {} ms", name, namespace, result.getDurationMillis());
+            } else {
+                log.warn("Service {} in namespace {} was not resolved: {}", name, namespace,
+                        result.getError().getMessage());
+            }
+        });
+        return results;
     }
 
     public Ceph getFileDataCeph() {
-        if (fileDataCeph != null) {
-            return fileDataCeph;
-        }
-
-        fileDataCeph = OpenshiftServiceProvider.getCephService(ocClient, configuration.getCeph().getDataFileBucket(),
-                ceph.getUrl());
-        return fileDataCeph;
+        return cache.get("fileDataCeph", () -> OpenshiftServiceProvider.getCephService(ocClient,
+                configuration.getCeph().getDataFileBucket(), ceph.getUrl()));
     }
 
     public Ceph getFileLowcodeCeph() {
-        if (fileLowcodeCeph != null) {
-            return fileLowcodeCeph;
-        }
-
-        fileLowcodeCeph = OpenshiftServiceProvider.getCephService(ocClient,
-                configuration.getCeph().getLowCodeFileBucket(), ceph.getUrl());
-        return fileLowcodeCeph;
+        return cache.get("fileLowcodeCeph", () -> OpenshiftServiceProvider.getCephService(ocClient,
+                configuration.getCeph().getLowCodeFileBucket(), ceph.getUrl()));
     }
 
     public Ceph getExcerptCeph() {
-        if (excerptCeph != null) {
-            return excerptCeph;
-        }
-
-        excerptCeph = OpenshiftServiceProvider.getCephService(ocClient, configuration.getCeph().getExcerptBucket(),
-                ceph.getUrl());
-        return excerptCeph;
+        return cache.get("excerptCeph", () -> OpenshiftServiceProvider.getCephService(ocClient,
+                configuration.getCeph().getExcerptBucket(), ceph.getUrl()));
     }
 
     public Db getCitusMaster() {
-        if (citusMaster != null) {
-            return citusMaster;
-        }
-
-        citusMaster = OpenshiftServiceProvider.getDbService(ocClient, configuration.getCitusMaster());
-        return citusMaster;
+        return cache.get("citusMaster", () -> OpenshiftServiceProvider.getDbService(ocClient,
+                configuration.getCitusMaster()));
     }
 
     public Db getCitusReplica() {
-        if (citusReplica != null) {
-            return citusReplica;
-        }
+        return cache.get("citusReplica", () -> OpenshiftServiceProvider.getDbService(ocClient,
+                configuration.getCitusReplica()));
+    }
 
-        citusReplica = OpenshiftServiceProvider.getDbService(ocClient, configuration.getCitusReplica());
-        return citusReplica;
+    /**
+     * Provides credentials of all {@link CitusUsers} roles, citus roles secret is read only once
+     *
+     * @return immutable {@link Map} of {@link User} by {@link CitusUsers} role
+     */
+    public Map<CitusUsers, User> getCitusRoles() {
+        return cache.get("citusRoles", () -> OpenshiftServiceProvider.getCitusUsers(ocClient,
+                configuration.getCitusRoles().getSecret()));
     }
 
-    public User getCitusAdminRole() {
-        if (citusAdminRole != null) {
-            return citusAdminRole;
-        }
+    public User getCitusRole(CitusUsers role) {
+        return getCitusRoles().get(role);
+    }
 
-        citusAdminRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.ADMIN_ROLE.getRoleName()
-        );
-        return citusAdminRole;
+    public User getCitusAdminRole() {
+        return getCitusRole(CitusUsers.ADMIN_ROLE);
     }
 
     public User getCitusApplicationRole() {
-        if (citusApplicationRole != null) {
-            return citusApplicationRole;
-        }
-
-        citusApplicationRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.APPLICATION_ROLE.getRoleName()
-        );
-        return citusApplicationRole;
+        return getCitusRole(CitusUsers.APPLICATION_ROLE);
     }
 
     public User getCitusRegistryOwnerRole() {
-        if (citusRegistryOwnerRole != null) {
-            return citusRegistryOwnerRole;
-        }
-
-        citusRegistryOwnerRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.REGISTRY_OWNER_ROLE.getRoleName()
-        );
-        return citusRegistryOwnerRole;
+        return getCitusRole(CitusUsers.REGISTRY_OWNER_ROLE);
     }
 
     public User getCitusSettingsRole() {
-        if (citusSettingsRole != null) {
-            return citusSettingsRole;
-        }
-
-        citusSettingsRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.SETTINGS_ROLE.getRoleName()
-        );
-        return citusSettingsRole;
+        return getCitusRole(CitusUsers.SETTINGS_ROLE);
     }
 
     public User getCitusAuditRole() {
-        if (citusAuditRole != null) {
-            return citusAuditRole;
-        }
-
-        citusAuditRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.AUDIT_ROLE.getRoleName()
-        );
-        return citusAuditRole;
+        return getCitusRole(CitusUsers.AUDIT_ROLE);
     }
 
     public User getCitusAnalyticsRoleRole() {
-        if (citusAnalyticsRole != null) {
-            return citusAnalyticsRole;
-        }
-
-        citusAnalyticsRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.ANALYTICS_ROLE.getRoleName()
-        );
-        return citusAnalyticsRole;
+        return getCitusRole(CitusUsers.ANALYTICS_ROLE);
     }
 
     public User getCitusExcerptExportedRole() {
-        if (citusExcerptExportedRole != null) {
-            return citusExcerptExportedRole;
-        }
-
-        citusExcerptExportedRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.EXCERPT_EXPORTER_ROLE.getRoleName()
-        );
-        return citusExcerptExportedRole;
+        return getCitusRole(CitusUsers.EXCERPT_EXPORTER_ROLE);
     }
 
     public User getCitusExcerptRole() {
-        if (citusExcerptRole != null) {
-            return citusExcerptRole;
-        }
-
-        citusExcerptRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.EXCERPT_ROLE.getRoleName()
-        );
-        return citusExcerptRole;
+        return getCitusRole(CitusUsers.EXCERPT_ROLE);
     }
 
     public User getCitusExcerptWorkerRole() {
-        if (citusExcerptWorkerRole != null) {
-            return citusExcerptWorkerRole;
-        }
-
-        citusExcerptWorkerRole = OpenshiftServiceProvider.getUserSecretsBySecretNameAndKey(ocClient,
-                configuration.getCitusRoles().getSecret(),
-                CitusUsers.EXCERPT_WORKER_ROLE.getRoleName()
-        );
-        return citusExcerptWorkerRole;
+        return getCitusRole(CitusUsers.EXCERPT_WORKER_ROLE);
     }
 
     public Service getDataFactory(String userName) {
-        if (dataFactory != null) {
-            dataFactory.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return dataFactory;
-        }
-
-        dataFactory = OpenshiftServiceProvider.getService(ocClient, configuration.getDataFactory(),
-                registryUserProvider.get(userName));
-        return dataFactory;
+        return withUser(getService("dataFactory", configuration.getDataFactory()), userName);
     }
 
     public Service getDataFactoryExternalPlatform(String userName) {
-        if (dataFactoryExternalPlatform != null) {
-            dataFactoryExternalPlatform.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return dataFactoryExternalPlatform;
-        }
-
-        dataFactoryExternalPlatform = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getDataFactoryExternalPlatform(), registryUserProvider.get(userName));
-        return dataFactoryExternalPlatform;
+        return withUser(getService("dataFactoryExternalPlatform", configuration.getDataFactoryExternalPlatform()),
+                userName);
     }
 
     public Service getRegistryManagement(String userName) {
-        if (registryManagement != null) {
-            registryManagement.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return registryManagement;
-        }
-
-        registryManagement = OpenshiftServiceProvider.getService(
-                ocClient,
-                configuration.getRegistryManagement(),
-                registryUserProvider.get(userName)
-        );
-        return registryManagement;
+        return withUser(getService("registryManagement", configuration.getRegistryManagement()), userName);
     }
 
     public Service getDataFactoryExternalSystem() {
-        if (dataFactoryExternalSystem != null) {
-            return dataFactoryExternalSystem;
-        }
-
-        dataFactoryExternalSystem = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getDataFactoryExternalSystem());
-        return dataFactoryExternalSystem;
+        return getService("dataFactoryExternalSystem", configuration.getDataFactoryExternalSystem());
     }
 
     public Service getDataFactoryPublicApiSystem() {
-        if (dataFactoryPublicApiSystem != null) {
-            return dataFactoryPublicApiSystem;
-        }
-
-        dataFactoryPublicApiSystem = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getDataFactoryPublicApiSystem());
-        return dataFactoryPublicApiSystem;
+        return getService("dataFactoryPublicApiSystem", configuration.getDataFactoryPublicApiSystem());
     }
 
     public Service getDataFactorySoap(String userName) {
-        if (dataFactorySoap != null) {
-            dataFactorySoap.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return dataFactorySoap;
-        }
-
-        dataFactorySoap = OpenshiftServiceProvider.getService(ocClient, configuration.getDataFactorySoap(),
-                registryUserProvider.get(userName));
+        Service dataFactorySoap = cache.get("dataFactorySoap", () -> {
+            Service service = OpenshiftServiceProvider.getService(ocClient, configuration.getDataFactorySoap());
+            String dataFactorySoapUrl = service.getUrl();
 
-        String dataFactorySoapUrl = dataFactorySoap.getUrl();
+            if (!dataFactorySoapUrl.endsWith("/")) {
+                dataFactorySoapUrl += "/";
+            }
 
-        if (!dataFactorySoapUrl.endsWith("/")) {
-            dataFactorySoapUrl += "/";
-        }
-
-        dataFactorySoap.setUrl(dataFactorySoapUrl + "ws?wsdl");
-
-        return dataFactorySoap;
+            service.setUrl(dataFactorySoapUrl + "ws?wsdl");
+            return service;
+        });
+        return withUser(dataFactorySoap, userName);
     }
 
     public Service getDigitalSignatureOps(String userName) {
-        if (digitalSignatureOps != null) {
-            digitalSignatureOps.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return digitalSignatureOps;
-        }
+        Service digitalSignatureOps = cache.get("digitalSignatureOps", () -> {
+            var dsoConfig = configuration.getDigitalSignature();
 
-        var dsoConfig = configuration.getDigitalSignature();
+            if (oc.getUrl().contains("cicd2")) {
+                dsoConfig.setPortForwarding(false);
+            }
 
-        if (oc.getUrl().contains("cicd2")) {
-            dsoConfig.setPortForwarding(false);
-        }
-
-
-        digitalSignatureOps = OpenshiftServiceProvider.getService(ocClient, dsoConfig,
-                registryUserProvider.get(userName));
-        return digitalSignatureOps;
+            return OpenshiftServiceProvider.getService(ocClient, dsoConfig);
+        });
+        return withUser(digitalSignatureOps, userName);
     }
 
     public Service getUserSettings(String userName) {
-        if (userSettings != null) {
-            userSettings.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return userSettings;
-        }
-
-        userSettings = OpenshiftServiceProvider.getService(ocClient, configuration.getUserSettings(),
-                registryUserProvider.get(userName));
-        return userSettings;
+        return withUser(getService("userSettings", configuration.getUserSettings()), userName);
     }
 
     public Service getBpms(String userName) {
-        if (bpms != null) {
-            bpms.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return bpms;
-        }
+        Service bpms = cache.get("bpms", () -> {
+            var bpmsConfig = configuration.getBpms();
 
-        var bpmsConfig = configuration.getBpms();
-
-        if (oc.getUrl().contains("cicd2")) {
-            bpmsConfig.setPortForwarding(false);
-        }
+            if (oc.getUrl().contains("cicd2")) {
+                bpmsConfig.setPortForwarding(false);
+            }
 
-        bpms = OpenshiftServiceProvider.getService(ocClient, bpmsConfig, registryUserProvider.get(userName));
-        return bpms;
+            return OpenshiftServiceProvider.getService(ocClient, bpmsConfig);
+        });
+        return withUser(bpms, userName);
     }
 
     public Service getFormManagementModeler(String userName) {
-        if (formManagementModeler != null) {
-            formManagementModeler.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return formManagementModeler;
-        }
-
-        formManagementModeler = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getFormManagementModeler(), registryUserProvider.get(userName));
-        return formManagementModeler;
+        return withUser(getService("formManagementModeler", configuration.getFormManagementModeler()), userName);
     }
 
     public Service getProcessWebserviceGateway(String userName) {
-        if (processWebserviceGateway != null) {
-            processWebserviceGateway.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return processWebserviceGateway;
-        }
-
-        processWebserviceGateway = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getProcessWebserviceGateway(), registryUserProvider.get(userName));
-        processWebserviceGateway.setUrl(processWebserviceGateway.getUrl());
-
-        return processWebserviceGateway;
+        return withUser(getService("processWebserviceGateway", configuration.getProcessWebserviceGateway()),
+                userName);
     }
 
     public Service getProcessWebserviceGatewayTrembita(String userName) {
-        if (processWebserviceGateway != null) {
-            processWebserviceGateway.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return processWebserviceGateway;
-        }
-
-        processWebserviceGateway = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getProcessWebserviceGateway(), registryUserProvider.get(userName));
-        processWebserviceGateway.setUrl(processWebserviceGateway.getUrl());
-
-        return processWebserviceGateway;
+        return withUser(getService("processWebserviceGateway", configuration.getProcessWebserviceGateway()),
+                userName);
     }
 
     public Service getFormManagementProvider(String userName) {
-        if (formManagementProvider != null) {
-            formManagementProvider.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return formManagementProvider;
-        }
-
-        formManagementProvider = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getFormManagementProvider(), registryUserProvider.get(userName));
-        return formManagementProvider;
+        return withUser(getService("formManagementProvider", configuration.getFormManagementProvider()), userName);
     }
 
     public Service getExcerpt(String userName) {
-        if (excerpt != null) {
-            excerpt.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return excerpt;
-        }
-
-        excerpt = OpenshiftServiceProvider.getService(ocClient, configuration.getExcerpt(),
-                registryUserProvider.get(userName));
-        return excerpt;
+        return withUser(getService("excerpt", configuration.getExcerpt()), userName);
     }
 
     public Service getUserTaskManagement() {
-        if (userTaskManagement != null) {
-            return userTaskManagement;
-        }
-
-        userTaskManagement = OpenshiftServiceProvider.getService(ocClient, configuration.getUserTaskManagement());
-        return userTaskManagement;
+        return getService("userTaskManagement", configuration.getUserTaskManagement());
     }
 
     public Service getUserProcessManagement() {
-        if (userProcessManagement != null) {
-            return userProcessManagement;
-        }
-
-        userProcessManagement = OpenshiftServiceProvider.getService(ocClient, configuration.getUserProcessManagement());
-        return userProcessManagement;
+        return getService("userProcessManagement", configuration.getUserProcessManagement());
     }
 
     public Service getDigitalDocument() {
-        if (digitalDocument != null) {
-            return digitalDocument;
-        }
-
-        digitalDocument = OpenshiftServiceProvider.getService(ocClient, configuration.getDigitalDocument());
-        return digitalDocument;
+        return getService("digitalDocument", configuration.getDigitalDocument());
     }
 
     public Service getOfficerPortal() {
-        if (officerPortal != null) {
-            return officerPortal;
-        }
-
-        officerPortal = OpenshiftServiceProvider.getService(ocClient, configuration.getOfficerPortal());
-        return officerPortal;
+        return getService("officerPortal", configuration.getOfficerPortal());
     }
 
     public Service getCitizenPortal() {
-        if (citizenPortal != null) {
-            return citizenPortal;
-        }
-
-        citizenPortal = OpenshiftServiceProvider.getService(ocClient, configuration.getCitizenPortal());
-        return citizenPortal;
+        return getService("citizenPortal", configuration.getCitizenPortal());
     }
 
     public Service getAdminPortal() {
-        if (adminPortal != null) {
-            return adminPortal;
-        }
-
-        adminPortal = OpenshiftServiceProvider.getService(ocClient, configuration.getAdminPortal());
-        return adminPortal;
+        return getService("adminPortal", configuration.getAdminPortal());
     }
 
     public Service getProcessHistory() {
-        if (processHistory != null) {
-            return processHistory;
-        }
-
-        processHistory = OpenshiftServiceProvider.getService(ocClient, configuration.getProcessHistory());
-        return processHistory;
+        return getService("processHistory", configuration.getProcessHistory());
     }
 
     public Service getRedashViewer() {
-        if (redashViewer != null) {
+        return cache.get("redashViewer", () -> {
+            Service redashViewer = OpenshiftServiceProvider.getService(ocClient, configuration.getRedashViewer());
+            redashViewer.setUrl(redashViewer.getUrl() + "/reports/api");
+            redashViewer.setToken(OpenshiftServiceProvider.getPasswordFromSecretByKey(
+                    ocClient,
+                    configuration.getRedashViewer().getSecret(),
+                    "viewer-api-key")
+            );
             return redashViewer;
-        }
-
-        redashViewer = OpenshiftServiceProvider.getService(ocClient, configuration.getRedashViewer());
-        redashViewer.setUrl(redashViewer.getUrl() + "/reports/api");
-        redashViewer.setToken(OpenshiftServiceProvider.getPasswordFromSecretByKey(
-                ocClient,
-                configuration.getRedashViewer().getSecret(),
-                "viewer-api-key")
-        );
-        return redashViewer;
+        });
     }
 
     public Service getRedashAdmin() {
-        if (redashAdmin != null) {
+        return cache.get("redashAdmin", () -> {
+            Service redashAdmin = OpenshiftServiceProvider.getService(ocClient, configuration.getRedashAdmin());
+            redashAdmin.setUrl(redashAdmin.getUrl() + "/reports/api");
+            redashAdmin.setToken(OpenshiftServiceProvider.getPasswordFromSecretByKey(
+                    ocClient,
+                    configuration.getRedashAdmin().getSecret(),
+                    "admin-api-key")
+            );
             return redashAdmin;
-        }
-
-        redashAdmin = OpenshiftServiceProvider.getService(ocClient, configuration.getRedashAdmin());
-        redashAdmin.setUrl(redashAdmin.getUrl() + "/reports/api");
-        redashAdmin.setToken(OpenshiftServiceProvider.getPasswordFromSecretByKey(
-                ocClient,
-                configuration.getRedashAdmin().getSecret(),
-                "admin-api-key")
-        );
-        return redashAdmin;
+        });
     }
 
     public Service getGerrit() {
-        if (gerrit != null) {
-            return gerrit;
-        }
-
-        gerrit = OpenshiftServiceProvider.getService(ocClient, configuration.getGerrit(),
-                ocClient.getCredentials(configuration.getGerrit().getSecret()));
+        return cache.get("gerrit", () -> {
+            Service gerrit = OpenshiftServiceProvider.getService(ocClient, configuration.getGerrit(),
+                    getCredentials(configuration.getGerrit().getSecret()));
 
-        if (!gerrit.getUrl().endsWith("/"))
-            gerrit.setUrl(gerrit.getUrl() + "/");
-        return gerrit;
+            if (!gerrit.getUrl().endsWith("/"))
+                gerrit.setUrl(gerrit.getUrl() + "/");
+            return gerrit;
+        });
     }
 
     public Service getJenkins() {
-        if (jenkins != null) {
-            return jenkins;
-        }
-
-        jenkins = OpenshiftServiceProvider.getService(ocClient, configuration.getJenkins(),
-                ocClient.getCredentials(configuration.getJenkins().getSecret()));
-        return jenkins;
+        return cache.get("jenkins", () -> OpenshiftServiceProvider.getService(ocClient, configuration.getJenkins(),
+                getCredentials(configuration.getJenkins().getSecret())));
     }
 
     public Service getFormSchemaProvider(String userName) {
-        if (formSchemaProvider != null) {
-            formSchemaProvider.setUser(registryUserProvider.getUserService().refreshUserToken(registryUserProvider.get(userName)));
-            return formSchemaProvider;
-        }
-
-        formSchemaProvider = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getFormSchemaProvider(), registryUserProvider.get(userName));
-        return formSchemaProvider;
+        return withUser(getService("formSchemaProvider", configuration.getFormSchemaProvider()), userName);
     }
 
     public Service getWiremock() {
-        if (wiremock != null) {
-            return wiremock;
-        }
-
-        wiremock = OpenshiftServiceProvider.getService(ocClient,
-                configuration.getWiremock());
-        return wiremock;
+        return getService("wiremock", configuration.getWiremock());
     }
 
 
@@ -591,15 +400,11 @@ public final class RegistryConfig {
     }
 
     public Redis getRedis(boolean isReinit) {
-        if (redis != null && !isReinit) {
-            return redis;
-        }
-
-        redis = OpenshiftServiceProvider.getRedisService(ocClient,
+        Supplier<Redis> redis = () -> OpenshiftServiceProvider.getRedisService(ocClient,
                 configuration.getRedis(),
-                ocClient.getCredentialsWithoutLogin(configuration.getRedis().getSecret())
+                getRedisCredentials()
         );
-        return redis;
+        return isReinit ? cache.refresh("redis", redis) : cache.get("redis", redis);
     }
 
     public List<Redis> getRedisList() {
@@ -607,23 +412,104 @@ public final class RegistryConfig {
     }
 
     public List<Redis> getRedisList(boolean isReinit) {
-        if (redis != null && !isReinit) {
-            return redisServices;
-        }
-
-        List<Redis> redisServices = OpenshiftServiceProvider
-                .getRedisServices(ocClient, configuration.getRedis(),
-                ocClient.getCredentialsWithoutLogin(configuration.getRedis().getSecret()));
-
-        return redisServices;
+        Supplier<List<Redis>> redisServices = () -> OpenshiftServiceProvider
+                .getRedisServices(ocClient, configuration.getRedis(), getRedisCredentials());
+        return isReinit ? cache.refresh("redisList", redisServices) : cache.get("redisList", redisServices);
     }
 
     public Service getNotificationService() {
-        if (notificationService != null) {
-            return notificationService;
+        return getService("notificationService", configuration.getNotificationService());
+    }
+
+    private Service getService(String key, ServiceConfiguration serviceConfiguration) {
+        return cache.get(key, () -> OpenshiftServiceProvider.getService(ocClient, serviceConfiguration));
+    }
+
+    private User getCredentials(String secret) {
+        return Metrics.time(Metrics.SECRET, namespace, secret, () -> ocClient.getCredentials(secret));
+    }
+
+    private User getRedisCredentials() {
+        String secret = configuration.getRedis().getSecret();
+        return Metrics.time(Metrics.SECRET, namespace, secret, () -> ocClient.getCredentialsWithoutLogin(secret));
+    }
+
+    /**
+     * Memoized endpoint is shared by all callers and is never modified, each caller gets its own {@link Service}
+     * with endpoint url and its own copy of requested user, so parallel tests with different users don't override
+     * each other and background token refresh doesn't change token of returned service.
+     */
+    private Service withUser(Service endpoint, String userName) {
+        UserService userService = registryUserProvider.getUserService();
+        return new Service(endpoint.getUrl(), userService.copyWithValidToken(userService.getUser(userName)));
+    }
+
+    private Map<String, Callable<Object>> getWarmUpTasks(String userName) {
+        Map<String, Callable<Object>> tasks = new LinkedHashMap<>();
+
+        if (configuration.getCeph() != null) {
+            tasks.put("fileDataCeph", this::getFileDataCeph);
+            tasks.put("fileLowcodeCeph", this::getFileLowcodeCeph);
+            tasks.put("excerptCeph", this::getExcerptCeph);
+        }
+        putIfConfigured(tasks, "citusRoles", configuration.getCitusRoles(), this::getCitusRoles);
+        putIfConfigured(tasks, "citusMaster", configuration.getCitusMaster(), this::getCitusMaster);
+        putIfConfigured(tasks, "citusReplica", configuration.getCitusReplica(), this::getCitusReplica);
+        putIfConfigured(tasks, "dataFactoryExternalSystem", configuration.getDataFactoryExternalSystem(),
+                this::getDataFactoryExternalSystem);
+        putIfConfigured(tasks, "dataFactoryPublicApiSystem", configuration.getDataFactoryPublicApiSystem(),
+                this::getDataFactoryPublicApiSystem);
+        putIfConfigured(tasks, "userTaskManagement", configuration.getUserTaskManagement(),
+                this::getUserTaskManagement);
+        putIfConfigured(tasks, "userProcessManagement", configuration.getUserProcessManagement(),
+                this::getUserProcessManagement);
+        putIfConfigured(tasks, "digitalDocument", configuration.getDigitalDocument(), this::getDigitalDocument);
+        putIfConfigured(tasks, "officerPortal", configuration.getOfficerPortal(), this::getOfficerPortal);
+        putIfConfigured(tasks, "citizenPortal", configuration.getCitizenPortal(), this::getCitizenPortal);
+        putIfConfigured(tasks, "adminPortal", configuration.getAdminPortal(), this::getAdminPortal);
+        putIfConfigured(tasks, "processHistory", configuration.getProcessHistory(), this::getProcessHistory);
+        putIfConfigured(tasks, "redashViewer", configuration.getRedashViewer(), this::getRedashViewer);
+        putIfConfigured(tasks, "redashAdmin", configuration.getRedashAdmin(), this::getRedashAdmin);
+        putIfConfigured(tasks, "gerrit", configuration.getGerrit(), this::getGerrit);
+        putIfConfigured(tasks, "jenkins", configuration.getJenkins(), this::getJenkins);
+        putIfConfigured(tasks, "wiremock", configuration.getWiremock(), this::getWiremock);
+        putIfConfigured(tasks, "redis", configuration.getRedis(), this::getRedis);
+        putIfConfigured(tasks, "notificationService", configuration.getNotificationService(),
+                this::getNotificationService);
+
+        if (userName == null) {
+            return tasks;
+        }
+
+        putIfConfigured(tasks, "dataFactory", configuration.getDataFactory(), () -> getDataFactory(userName));
+        putIfConfigured(tasks, "dataFactoryExternalPlatform", configuration.getDataFactoryExternalPlatform(),
+                () -> getDataFactoryExternalPlatform(userName));
+        putIfConfigured(tasks, "registryManagement", configuration.getRegistryManagement(),
+                () -> getRegistryManagement(userName));
+        putIfConfigured(tasks, "dataFactorySoap", configuration.getDataFactorySoap(),
+                () -> getDataFactorySoap(userName));
+        putIfConfigured(tasks, "digitalSignatureOps", configuration.getDigitalSignature(),
+                () -> getDigitalSignatureOps(userName));
+        putIfConfigured(tasks, "userSettings", configuration.getUserSettings(), () -> getUserSettings(userName));
+        putIfConfigured(tasks, "bpms", configuration.getBpms(), () -> getBpms(userName));
+        putIfConfigured(tasks, "formManagementModeler", configuration.getFormManagementModeler(),
+                () -> getFormManagementModeler(userName));
+        putIfConfigured(tasks, "processWebserviceGateway", configuration.getProcessWebserviceGateway(),
+                () -> getProcessWebserviceGateway(userName));
+        putIfConfigured(tasks, "formManagementProvider", configuration.getFormManagementProvider(),
+                () -> getFormManagementProvider(userName));
+        putIfConfigured(tasks, "excerpt", configuration.getExcerpt(), () -> getExcerpt(userName));
+        putIfConfigured(tasks, "formSchemaProvider", configuration.getFormSchemaProvider(),
+                () -> getFormSchemaProvider(userName));
+        return tasks;
+    }
+
+    private static void putIfConfigured(Map<String, Callable<Object>> tasks,
+                                        String name,
+                                        ServiceConfiguration serviceConfiguration,
+                                        Callable<Object> getter) {
+        if (serviceConfiguration != null) {
+            tasks.put(name, getter);
         }
-
-        notificationService = OpenshiftServiceProvider.getService(ocClient, configuration.getNotificationService());
-        return notificationService;
     }
 }
@@ -24,7 +24,7 @@ import java.util.Properties;
  * Configuration for UI test run abilities
  */
 public final class RunUITestConfiguration {
-    private static RunUITestConfiguration instance;
+    private static volatile RunUITestConfiguration instance;
     private final Properties properties;
 
     private RunUITestConfiguration() {
@@ -60,7 +60,11 @@ public final class RunUITestConfiguration {
 
     public static RunUITestConfiguration getInstance() {
         if (instance == null) {
-            instance = new RunUITestConfiguration();
+            synchronized (RunUITestConfiguration.class) {
+                if (instance == null) {
+                    instance = new RunUITestConfiguration();
+                }
+            }
         }
         return instance;
     }
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.daemon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.configuration.CentralConfig;
+import platform.qa.configuration.MasterConfig;
+import platform.qa.configuration.RegistryConfig;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-lived local process that owns {@link MasterConfig} with its port forwards, tokens and caches and serves
+ * resolved services to test JVMs on the same machine through {@link ConfigDaemonClient}.
+ * Server listens on loopback only, port is defined by {@code configDaemonPort} system property (random by default).
+ * Port, access key and PID are written to file defined by {@code configDaemonFile} that is readable only by its owner.
+ * Only listed getters of descriptors are served, clients and admin credentials (e.g. {@code getOcService}) are not.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          java -cp <tests classpath> platform.qa.daemon.ConfigDaemon namespace-1 namespace-2
+ *      }
+ *  </p>
+ * Endpoints:
+ * <ul>
+ *     <li>{@code GET /ping} - PID of the daemon, used to check it is alive</li>
+ *     <li>{@code GET /registry/{namespace}/{getter}?user={userName}} - {@link RegistryConfig} getter,
+ *     {@code default} namespace is the one from configuration</li>
+ *     <li>{@code GET /central/{getter}?user={userName}} - {@link CentralConfig} getter</li>
+ *     <li>{@code GET /user/{namespace}/{userName}} - registry user with valid token</li>
+ *     <li>{@code GET /platform-user/{userName}} - platform user with valid token</li>
+ * </ul>
+ */
+@Log4j2
+public final class ConfigDaemon {
+    static final String KEY_HEADER = "X-Config-Key";
+    private static final Set<String> REGISTRY_GETTERS = Set.of(
+            "getFileDataCeph", "getFileLowcodeCeph", "getExcerptCeph", "getCitusMaster", "getCitusReplica",
+            "getCitusRoles", "getCitusAdminRole", "getCitusApplicationRole", "getCitusRegistryOwnerRole",
+            "getCitusSettingsRole", "getCitusAuditRole", "getCitusAnalyticsRoleRole", "getCitusExcerptExportedRole",
+            "getCitusExcerptRole", "getCitusExcerptWorkerRole", "getDataFactory", "getDataFactoryExternalPlatform",
+            "getRegistryManagement", "getDataFactoryExternalSystem", "getDataFactoryPublicApiSystem",
+            "getDataFactorySoap", "getDigitalSignatureOps", "getUserSettings", "getBpms", "getFormManagementModeler",
+            "getProcessWebserviceGateway", "getProcessWebserviceGatewayTrembita", "getFormManagementProvider",
+            "getExcerpt", "getUserTaskManagement", "getUserProcessManagement", "getDigitalDocument",
+            "getOfficerPortal", "getCitizenPortal", "getAdminPortal", "getProcessHistory", "getRedashViewer",
+            "getRedashAdmin", "getGerrit", "getJenkins", "getFormSchemaProvider", "getWiremock", "getRedis",
+            "getRedisList", "getNotificationService");
+    //keycloak and vault services are not listed, as they are provided with admin credentials
+    private static final Set<String> CENTRAL_GETTERS = Set.of(
+            "getCeph", "getKibana", "getKiali", "getJager", "getDefaultGrafana", "getCustomGrafana", "getJenkins",
+            "getGerrit", "getWiremock", "getControlPlane", "getNexus", "getEmail");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final MasterConfig masterConfig;
+    private final String key;
+    private HttpServer server;
+
+    private ConfigDaemon(MasterConfig masterConfig) {
+        this.masterConfig = masterConfig;
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        this.key = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+
+    public static void main(String[] args) throws IOException {
+        MasterConfig masterConfig = MasterConfig.getInstance();
+        if (args.length > 0) {
+            masterConfig.setNamespaces(Arrays.asList(args));
+        }
+        start(masterConfig);
+    }
+
+    /**
+     * Start daemon in this JVM, it is stopped on JVM shutdown
+     *
+     * @param masterConfig {@link MasterConfig} to serve
+     * @return started {@link ConfigDaemon}
+     */
+    public static ConfigDaemon start(MasterConfig masterConfig) throws IOException {
+        ConfigDaemon daemon = new ConfigDaemon(masterConfig);
+        daemon.listen();
+        return daemon;
+    }
+
+    /**
+     * Stop serving requests and delete daemon file, so clients don't connect to it anymore
+     */
+    public void stop() {
+        server.stop(0);
+        Path file = getDaemonFile();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Config daemon file {} is not deleted: {}", file, e.getMessage());
+        }
+    }
+
+    private void listen() throws IOException {
+        int port = Integer.parseInt(System.getProperty("configDaemonPort", "0"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8, ConcurrencyUtils.daemonThreadFactory()));
+        server.createContext("/", this::handle);
+        server.start();
+
+        Path file = getDaemonFile();
+        writeDaemonFile(file, server.getAddress().getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+        log.info("Config daemon is listening on {}, connection details are in {}", server.getAddress(), file);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String requestKey = exchange.getRequestHeaders().getFirst(KEY_HEADER);
+            if (requestKey == null || !MessageDigest.isEqual(requestKey.getBytes(StandardCharsets.UTF_8),
+                    key.getBytes(StandardCharsets.UTF_8))) {
+                respond(exchange, 401, "Invalid access key");
+                return;
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Only GET is supported");
+                return;
+            }
+
+            Optional<Object> result = resolve(exchange.getRequestURI().getPath().split("/"),
+                    getUserParameter(exchange.getRequestURI().getRawQuery()));
+            if (result.isPresent()) {
+                respond(exchange, 200, MAPPER.writeValueAsString(result.get()));
+            } else {
+                respond(exchange, 404, "Unknown resource " + exchange.getRequestURI().getPath());
+            }
+        } catch (Exception e) {
+            Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+            log.error("Config daemon request {} failed", exchange.getRequestURI(), cause);
+            respond(exchange, 500, String.valueOf(cause.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    //getter is checked before configuration is touched, so getters that are not listed never initialize anything
+    private Optional<Object> resolve(String[] path, String userName) throws ReflectiveOperationException {
+        if (path.length == 2 && "ping".equals(path[1])) {
+            return Optional.of(Map.of("pid", ProcessHandle.current().pid()));
+        }
+        if (path.length == 4 && "registry".equals(path[1]) && REGISTRY_GETTERS.contains(path[3])) {
+            return invokeGetter(getRegistryConfig(path[2]), path[3], userName);
+        }
+        if (path.length == 3 && "central".equals(path[1]) && CENTRAL_GETTERS.contains(path[2])) {
+            return invokeGetter(masterConfig.getCentralConfig(), path[2], userName);
+        }
+        if (path.length == 4 && "user".equals(path[1])) {
+            return Optional.of(getRegistryConfig(path[2]).getRegistryUserProvider().get(path[3]));
+        }
+        if (path.length == 3 && "platform-user".equals(path[1])) {
+            return Optional.of(masterConfig.getCentralConfig().getPlatformUserProvider().get(path[2]));
+        }
+        return Optional.empty();
+    }
+
+    private RegistryConfig getRegistryConfig(String namespace) {
+        return "default".equals(namespace)
+                ? masterConfig.getRegistryConfig()
+                : masterConfig.getRegistryConfig(namespace);
+    }
+
+    private static Optional<Object> invokeGetter(Object config, String getter, String userName)
+            throws ReflectiveOperationException {
+        Optional<Method> method = Arrays.stream(config.getClass().getMethods())
+                .filter(candidate -> candidate.getName().equals(getter))
+                .filter(candidate -> userName == null
+                        ? candidate.getParameterCount() == 0
+                        : candidate.getParameterCount() == 1 && candidate.getParameterTypes()[0] == String.class)
+                .findFirst();
+        if (method.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(userName == null
+                ? method.get().invoke(config)
+                : method.get().invoke(config, userName));
+    }
+
+    private static String getUserParameter(String query) {
+        if (query == null) {
+            return null;
+        }
+        return Arrays.stream(query.split("&"))
+                .filter(parameter -> parameter.startsWith("user="))
+                .map(parameter -> URLDecoder.decode(parameter.substring("user=".length()), StandardCharsets.UTF_8))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", status == 200 ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private void writeDaemonFile(Path file, int port) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.deleteIfExists(file);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+        }
+        Files.writeString(file, MAPPER.writeValueAsString(Map.of("port", port, "key", key,
+                "pid", ProcessHandle.current().pid())));
+    }
+
+    static Path getDaemonFile() {
+        return Paths.get(System.getProperty("configDaemonFile", Paths.get(System.getProperty("java.io.tmpdir"),
+                "platform-qa-config-" + System.getProperty("user.name"), "daemon.json").toString()));
+    }
+}
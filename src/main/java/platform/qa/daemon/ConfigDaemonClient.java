@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.daemon;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.entities.User;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Thin client of {@link ConfigDaemon}, provides services resolved by the daemon instead of resolving them in test JVM.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          if (ConfigDaemonClient.isRunning()) {
+ *              Service bpms = ConfigDaemonClient.connect().getRegistry("default", "getBpms", "officer", Service.class);
+ *          }
+ *      }
+ *  </p>
+ */
+@Log4j2
+public class ConfigDaemonClient {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    //services with user may wait for token or port forward in the daemon
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+    private static final Duration PING_TIMEOUT = Duration.ofSeconds(2);
+
+    private final String baseUrl;
+    private final String key;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final long pid;
+
+    private ConfigDaemonClient(int port, String key, long pid) {
+        this.baseUrl = "http://127.0.0.1:" + port;
+        this.key = key;
+        this.pid = pid;
+    }
+
+    /**
+     * Check that daemon of daemon file is alive and answers with its key.
+     * Daemon file left by daemon that was killed is deleted.
+     *
+     * @return true if daemon is running
+     */
+    public static boolean isRunning() {
+        Path file = ConfigDaemon.getDaemonFile();
+        if (!Files.isReadable(file)) {
+            return false;
+        }
+
+        ConfigDaemonClient client;
+        try {
+            client = read(file);
+        } catch (IOException e) {
+            log.debug("Config daemon file {} is not read: {}", file, e.getMessage());
+            return false;
+        }
+        if (ProcessHandle.of(client.pid).map(ProcessHandle::isAlive).orElse(false)) {
+            return client.ping();
+        }
+
+        log.info("Config daemon {} is not running anymore, its file {} is deleted", client.pid, file);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Config daemon file {} is not deleted: {}", file, e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Connect to daemon started on this machine by the same OS user
+     *
+     * @return {@link ConfigDaemonClient}
+     */
+    @SneakyThrows
+    public static ConfigDaemonClient connect() {
+        Path file = ConfigDaemon.getDaemonFile();
+        if (!Files.isReadable(file)) {
+            throw new IllegalStateException("Config daemon is not running, file " + file + " is missing");
+        }
+        return read(file);
+    }
+
+    private static ConfigDaemonClient read(Path file) throws IOException {
+        JsonNode daemon = MAPPER.readTree(file.toFile());
+        return new ConfigDaemonClient(daemon.path("port").asInt(), daemon.path("key").asText(),
+                daemon.path("pid").asLong(-1));
+    }
+
+    //port of killed daemon could be taken by another process, so PID of the answer is compared as well
+    private boolean ping() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/ping"))
+                .timeout(PING_TIMEOUT)
+                .header(ConfigDaemon.KEY_HEADER, key)
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 && MAPPER.readTree(response.body()).path("pid").asLong() == pid;
+        } catch (IOException e) {
+            log.debug("Config daemon {} is not available: {}", pid, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public <T> T getRegistry(String namespace, String getter, Class<T> type) {
+        return get("/registry/" + namespace + "/" + getter, MAPPER.constructType(type));
+    }
+
+    public <T> T getRegistry(String namespace, String getter, String userName, Class<T> type) {
+        return get("/registry/" + namespace + "/" + getter + "?user=" + encode(userName), MAPPER.constructType(type));
+    }
+
+    public <T> List<T> getRegistryList(String namespace, String getter, Class<T> elementType) {
+        return get("/registry/" + namespace + "/" + getter,
+                MAPPER.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    public <T> T getCentral(String getter, Class<T> type) {
+        return get("/central/" + getter, MAPPER.constructType(type));
+    }
+
+    public User getUser(String namespace, String userName) {
+        return get("/user/" + namespace + "/" + encode(userName), MAPPER.constructType(User.class));
+    }
+
+    public User getPlatformUser(String userName) {
+        return get("/platform-user/" + encode(userName), MAPPER.constructType(User.class));
+    }
+
+    @SneakyThrows
+    private <T> T get(String path, JavaType type) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header(ConfigDaemon.KEY_HEADER, key)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Config daemon responded " + response.statusCode() + " for " + path
+                    + ": " + response.body());
+        }
+        return MAPPER.readValue(response.body(), type);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
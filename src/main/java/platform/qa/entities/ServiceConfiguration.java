@@ -20,6 +20,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,4 +32,10 @@ public class ServiceConfiguration {
     private String route;
     private boolean portForwarding;
     private int defaultPort;
+    private List<String> podSelectors;
+
+    public ServiceConfiguration(String podLabel, String secret, String namespace, String route,
+                                boolean portForwarding, int defaultPort) {
+        this(podLabel, secret, namespace, route, portForwarding, defaultPort, null);
+    }
 }
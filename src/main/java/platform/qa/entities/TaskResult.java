@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.entities;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single task executed in parallel: either a value or an error, together with execution time.
+ *
+ * @param <T> type of task value
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TaskResult<T> {
+    private final T value;
+    private final Throwable error;
+    private final long durationMillis;
+
+    public static <T> TaskResult<T> success(T value, long durationMillis) {
+        return new TaskResult<>(value, null, durationMillis);
+    }
+
+    public static <T> TaskResult<T> failure(Throwable error, long durationMillis) {
+        return new TaskResult<>(null, error, durationMillis);
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -20,7 +20,8 @@ import platform.qa.exceptions.api.BaseException;
 
 /**
  * Group of exceptions that related to configuration issues.
- * Currently, available {@link JsonConfigurationMissingException} and {@link PropertyConfigurationMissingException}
+ * Currently, available {@link JsonConfigurationMissingException}, {@link PropertyConfigurationMissingException},
+ * {@link MissingNamespaceInConfiguration} and {@link InitializationFailedException}
  * Example of usage:
  *  <p>
  *      {@code
@@ -54,4 +55,11 @@ public final class ConfigurationExceptions {
         }
     }
 
+    public static final class InitializationFailedException extends BaseException {
+
+        public InitializationFailedException(String message) {
+            super(message);
+        }
+    }
+
 }
@@ -20,7 +20,8 @@ import platform.qa.exceptions.api.BaseException;
 
 /**
  * Group of exceptions that related to openshift client issues.
- * Currently, available {@link OpenshiftClientExceptions.OpenshiftNamespaceMissingException}
+ * Currently, available {@link OpenshiftClientExceptions.OpenshiftNamespaceMissingException} and
+ * {@link OpenshiftClientExceptions.PodNotFoundException}
  * Example of usage:
  *  <p>
  *      {@code
@@ -39,4 +40,11 @@ public final class OpenshiftClientExceptions {
             super(message);
         }
     }
+
+    public static final class PodNotFoundException extends BaseException {
+
+        public PodNotFoundException(String message) {
+            super(message);
+        }
+    }
 }
@@ -18,6 +18,7 @@ package platform.qa.extension;
 
 import lombok.SneakyThrows;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.ServerSocket;
 
@@ -29,22 +30,31 @@ import java.net.ServerSocket;
  *          int availablePort = new SocketAnalyzer().getAvailablePort();
  *      }
  *  </p>
+ *
+ * @deprecated port is released before it is returned, so another process could bind it before it is used.
+ * Port forwards bind ephemeral port themselves, see {@link platform.qa.services.PortForwardManager}.
  */
-public class SocketAnalyzer extends ServerSocket {
-
+@Deprecated
+public class SocketAnalyzer implements Closeable {
 
+    //does not open socket, IOException is kept for callers that catch it
     public SocketAnalyzer() throws IOException {
     }
 
     /**
      * Provides available port for TCP connection
      * @return available port that can be used for TCP connection
+     * @deprecated port could be taken by another process after it is returned, bind port 0 instead
      */
+    @Deprecated
     @SneakyThrows(IOException.class)
     public int getAvailablePort() {
-        ServerSocket serverSocket = new ServerSocket(0);
-        int port = serverSocket.getLocalPort();
-        serverSocket.close();
-        return port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
     }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.metrics;
+
+import lombok.EqualsAndHashCode;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.metrics.events.ConfigurationEvent;
+import platform.qa.metrics.events.FlightRecorderEvents;
+import platform.qa.oc.OkdClient;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Timers and counters of external calls made while resolving configuration: route lookups, secret and config map
+ * reads, port forwards, token grants and keycloak user creation. Every timer is tagged by operation, namespace and
+ * service key. Summary is logged at JVM exit if {@code metricsSummary} system property is true,
+ * recording is disabled by {@code metrics=false}.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          Map<String, String> secret = Metrics.time(Metrics.SECRET, namespace, name,
+ *                  () -> ocClient.getSecretsByName(name));
+ *          List<MetricSnapshot> snapshot = Metrics.getSnapshot();
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class Metrics {
+    public static final String BOOTSTRAP = "bootstrap";
+    public static final String RESOLVE = "resolve";
+    public static final String ROUTE = "route";
+    public static final String ROUTE_LIST = "routeList";
+    public static final String SECRET = "secret";
+    public static final String CONFIG_MAP = "configMap";
+    public static final String PORT_FORWARD = "portForward";
+    public static final String TOKEN_GRANT = "tokenGrant";
+    public static final String CREATE_USER = "createUser";
+    public static final String PERMISSION_WAIT = "permissionWait";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("metrics", "true"));
+    private static final Map<Tag, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED && Boolean.parseBoolean(System.getProperty("metricsSummary", "false"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (!TIMERS.isEmpty()) {
+                    log.info(getSummary());
+                }
+            }, "platform-qa-config-metrics"));
+        }
+    }
+
+    private Metrics() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Execute action and record its duration, failed action is recorded as error and its exception is rethrown.
+     * Call is also recorded as span by {@link Tracer} and as flight recorder event if they are enabled.
+     *
+     * @param operation operation name, e.g. {@link #SECRET}
+     * @param namespace namespace or realm the call is made for
+     * @param key       service, secret, route or user the call is made for
+     * @param action    external call
+     * @param <T>       type of action result
+     * @return action result
+     */
+    public static <T> T time(String operation, String namespace, String key, Supplier<T> action) {
+        ConfigurationEvent event = FlightRecorderEvents.begin(operation);
+        if (!ENABLED && !Tracer.isEnabled() && event == null) {
+            return action.get();
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            long duration = System.nanoTime() - start;
+            FlightRecorderEvents.commit(event, namespace, key, failed);
+            record(operation, namespace, key, duration, failed);
+            Tracer.span(operation, namespace, key, start, duration, failed);
+        }
+    }
+
+    /**
+     * Record call that was measured by caller
+     *
+     * @param operation     operation name
+     * @param namespace     namespace or realm the call is made for
+     * @param key           service, secret, route or user the call is made for
+     * @param durationNanos duration of call
+     * @param failed        true if call failed
+     */
+    public static void record(String operation, String namespace, String key, long durationNanos, boolean failed) {
+        if (!ENABLED) {
+            return;
+        }
+        TIMERS.computeIfAbsent(new Tag(operation, namespace, key), ignored -> new Timer())
+                .record(durationNanos, failed);
+    }
+
+    /**
+     * Record value that was provided by cache without external call, only flight recorder event is emitted,
+     * so hot path of cached getters is not slowed down by timers
+     *
+     * @param operation operation name
+     * @param namespace namespace or realm the value is provided for
+     * @param key       service, route or user the value is provided for
+     */
+    public static void cacheHit(String operation, String namespace, String key) {
+        FlightRecorderEvents.cacheHit(operation, namespace, key);
+    }
+
+    /**
+     * Provides current state of all timers
+     *
+     * @return {@link List} of {@link MetricSnapshot} sorted by total time descending
+     */
+    public static List<MetricSnapshot> getSnapshot() {
+        List<MetricSnapshot> snapshot = new ArrayList<>();
+        TIMERS.forEach((tag, timer) -> snapshot.add(timer.snapshot(tag)));
+        snapshot.sort(Comparator.comparingDouble(MetricSnapshot::getTotalMillis).reversed());
+        return snapshot;
+    }
+
+    /**
+     * Provides summary of recorded calls: totals per operation and the slowest namespaces and keys
+     *
+     * @return printable summary
+     */
+    public static String getSummary() {
+        List<MetricSnapshot> snapshot = getSnapshot();
+        StringBuilder summary = new StringBuilder("platform-qa-config external calls:\n");
+
+        Map<String, List<MetricSnapshot>> byOperation = snapshot.stream()
+                .collect(Collectors.groupingBy(MetricSnapshot::getOperation, TreeMap::new, Collectors.toList()));
+        byOperation.forEach((operation, metrics) -> summary.append(String.format("  %-15s calls=%-6d errors=%-4d "
+                        + "total=%.1f ms%n", operation,
+                metrics.stream().mapToLong(MetricSnapshot::getCount).sum(),
+                metrics.stream().mapToLong(MetricSnapshot::getErrors).sum(),
+                metrics.stream().mapToDouble(MetricSnapshot::getTotalMillis).sum())));
+
+        summary.append("slowest:\n");
+        snapshot.stream()
+                .limit(10)
+                .forEach(metric -> summary.append(String.format("  %-15s %-30s %-40s calls=%-4d mean=%.1f ms "
+                                + "max=%.1f ms total=%.1f ms%n", metric.getOperation(), metric.getNamespace(),
+                        metric.getKey(), metric.getCount(), metric.getMeanMillis(), metric.getMaxMillis(),
+                        metric.getTotalMillis())));
+        return summary.toString();
+    }
+
+    public static void reset() {
+        TIMERS.clear();
+    }
+
+    /**
+     * Provides namespace of client to tag its calls
+     *
+     * @param ocClient {@link OkdClient} client for k8s
+     * @return namespace or {@code -} if it is not known
+     */
+    public static String namespaceOf(OkdClient ocClient) {
+        try {
+            return Objects.requireNonNullElse(ocClient.getOsClient().getNamespace(), "-");
+        } catch (RuntimeException e) {
+            return "-";
+        }
+    }
+
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long durationNanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+        }
+
+        private MetricSnapshot snapshot(Tag tag) {
+            return new MetricSnapshot(tag.operation, tag.namespace, tag.key, count.sum(), errors.sum(),
+                    totalNanos.sum() / 1e6, maxNanos.get() / 1e6);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class Tag {
+        private final String operation;
+        private final String namespace;
+        private final String key;
+
+        private Tag(String operation, String namespace, String key) {
+            this.operation = operation;
+            this.namespace = Objects.requireNonNullElse(namespace, "-");
+            this.key = Objects.requireNonNullElse(key, "-");
+        }
+    }
+}
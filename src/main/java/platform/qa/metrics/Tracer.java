@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records spans of calls measured by {@link Metrics} and writes them at JVM exit as Chrome trace-event JSON, that can
+ * be opened in {@code chrome://tracing} or Perfetto. Spans of the same thread are nested, so serial chains of
+ * resolution, e.g. {@code CentralConfig} construction, keycloak secret and route, are visible on timeline.
+ * Enabled by {@code traceFile} system property with path of trace file.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          mvn test -DtraceFile=target/bootstrap-trace.json
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class Tracer {
+    private static final String TRACE_FILE = System.getProperty("traceFile");
+    private static final Queue<Map<String, Object>> EVENTS = new ConcurrentLinkedQueue<>();
+    private static final Map<Long, String> THREADS = new ConcurrentHashMap<>();
+
+    static {
+        if (isEnabled()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> write(Paths.get(TRACE_FILE)),
+                    "platform-qa-config-tracer"));
+        }
+    }
+
+    private Tracer() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    public static boolean isEnabled() {
+        return TRACE_FILE != null && !TRACE_FILE.isBlank();
+    }
+
+    /**
+     * Record complete span of the current thread
+     *
+     * @param operation     operation name, used as span category
+     * @param namespace     namespace or realm the call is made for
+     * @param key           service, secret, route or user the call is made for
+     * @param startNanos    {@link System#nanoTime()} at the start of call
+     * @param durationNanos duration of call
+     * @param failed        true if call failed
+     */
+    public static void span(String operation, String namespace, String key, long startNanos, long durationNanos,
+                            boolean failed) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Thread thread = Thread.currentThread();
+        THREADS.putIfAbsent(thread.getId(), thread.getName());
+
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("namespace", namespace);
+        args.put("key", key);
+        args.put("failed", failed);
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", operation + " " + key);
+        event.put("cat", operation);
+        event.put("ph", "X");
+        event.put("ts", (startNanos - JvmStart.NANOS) / 1_000.0);
+        event.put("dur", durationNanos / 1_000.0);
+        event.put("pid", ProcessHandle.current().pid());
+        event.put("tid", thread.getId());
+        event.put("args", args);
+        EVENTS.add(event);
+    }
+
+    /**
+     * Write recorded spans to file, spans are written at JVM exit automatically
+     *
+     * @param file trace file
+     */
+    public static void write(Path file) {
+        List<Map<String, Object>> events = new ArrayList<>();
+        THREADS.forEach((id, name) -> events.add(Map.of("name", "thread_name", "ph", "M",
+                "pid", ProcessHandle.current().pid(), "tid", id, "args", Map.of("name", name))));
+        events.addAll(EVENTS);
+
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            new ObjectMapper().writeValue(file.toFile(), Map.of("traceEvents", events, "displayTimeUnit", "ms"));
+        } catch (IOException e) {
+            log.warn("Trace is not written to {}: {}", file, e.getMessage());
+        }
+    }
+
+    //timestamps are relative to JVM start, so spans started before tracer was loaded are positive as well
+    private static final class JvmStart {
+        private static final long NANOS = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(
+                System.currentTimeMillis() - ProcessHandle.current().info().startInstant()
+                        .map(Instant::toEpochMilli)
+                        .orElse(System.currentTimeMillis()));
+    }
+}
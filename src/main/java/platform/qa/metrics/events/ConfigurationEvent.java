@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.metrics.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import lombok.Setter;
+
+/**
+ * Base of platform-qa-config flight recorder events, duration of event is duration of the call.
+ * Fields are protected as flight recorder does not record private fields of event superclass.
+ */
+@Setter
+@Category({"Platform QA", "Configuration"})
+public abstract class ConfigurationEvent extends Event {
+    @Label("Namespace")
+    @Description("Namespace or realm the call is made for")
+    protected String namespace;
+
+    @Label("Service")
+    @Description("Service, secret, route or user the call is made for")
+    protected String service;
+
+    @Label("Cache Hit")
+    @Description("Value was provided by cache without external call")
+    protected boolean cacheHit;
+
+    @Label("Failed")
+    protected boolean failed;
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.metrics.events;
+
+import platform.qa.metrics.Metrics;
+
+/**
+ * Emits flight recorder events for calls measured by {@link Metrics}. Events are created only when they are enabled
+ * in running recording, e.g. {@code -XX:StartFlightRecording}, so disabled events cost a single check.
+ */
+public final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Start event of operation
+     *
+     * @param operation operation name, e.g. {@link Metrics#SECRET}
+     * @return started event or null if operation has no event or event is disabled
+     */
+    public static ConfigurationEvent begin(String operation) {
+        ConfigurationEvent event = create(operation);
+        if (event == null || !event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Finish started event, event is committed if it exceeds recording threshold
+     *
+     * @param event     event provided by {@link #begin(String)}, ignored if null
+     * @param namespace namespace or realm the call is made for
+     * @param key       service, secret, route or user the call is made for
+     * @param failed    true if call failed
+     */
+    public static void commit(ConfigurationEvent event, String namespace, String key, boolean failed) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setNamespace(namespace);
+            event.setService(key);
+            event.setFailed(failed);
+            event.commit();
+        }
+    }
+
+    /**
+     * Emit event of operation that was served by cache without external call
+     *
+     * @param operation operation name
+     * @param namespace namespace or realm the value is provided for
+     * @param key       service, route or user the value is provided for
+     */
+    public static void cacheHit(String operation, String namespace, String key) {
+        ConfigurationEvent event = create(operation);
+        if (event != null && event.shouldCommit()) {
+            event.setNamespace(namespace);
+            event.setService(key);
+            event.setCacheHit(true);
+            event.commit();
+        }
+    }
+
+    private static ConfigurationEvent create(String operation) {
+        switch (operation) {
+            case Metrics.RESOLVE:
+            case Metrics.ROUTE:
+                return new ServiceResolvedEvent();
+            case Metrics.PORT_FORWARD:
+                return new PortForwardOpenedEvent();
+            case Metrics.TOKEN_GRANT:
+                return new TokenRefreshedEvent();
+            case Metrics.SECRET:
+            case Metrics.CONFIG_MAP:
+                return new SecretReadEvent();
+            default:
+                return null;
+        }
+    }
+}
@@ -18,21 +18,22 @@ package platform.qa.providers.impl;
 
 import lombok.Getter;
 import platform.qa.entities.Service;
+import platform.qa.entities.TaskResult;
 import platform.qa.entities.User;
 import platform.qa.keycloak.KeycloakClient;
 import platform.qa.providers.api.AtomicOperation;
+import platform.qa.services.KeycloakTokenService;
 import platform.qa.services.UserService;
 import platform.qa.utils.ConfigurationUtils;
 
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Provide platform users data by username
  */
 public class PlatformUserProvider implements AtomicOperation<User> {
     private Service ocService;
-    private AtomicReference<User> user = new AtomicReference<>();
     @Getter
     private Map<String, User> users;
     @Getter private UserService userService;
@@ -41,17 +42,45 @@ public class PlatformUserProvider implements AtomicOperation<User> {
         this.ocService = ocService;
         this.users = getPlatformUsersFromJson(usersFilePath);
         userService = new UserService(users, keycloakClient);
+        userService.setProvisioningScope(ocService.getUrl());
+    }
+
+    public PlatformUserProvider(Service ocService, KeycloakClient keycloakClient, Service keycloak,
+                                String usersFilePath) {
+        this.ocService = ocService;
+        this.users = getPlatformUsersFromJson(usersFilePath);
+        userService = new UserService(users, keycloakClient,
+                keycloak != null ? new KeycloakTokenService(keycloak.getUrl()) : null);
+        userService.setProvisioningScope(keycloak != null ? keycloak.getUrl() : ocService.getUrl());
     }
 
     @Override
     public User get(String name) {
-        return user.updateAndGet(user -> {
-            User currentUser = userService.initUser(user, name);
-            userService.refreshUserToken(currentUser);
-            Service ocService = new Service(this.ocService.getUrl(), currentUser);
-            userService.waitForPermissionsToBeAvailable(ocService);
-            return currentUser;
-        });
+        User currentUser = userService.refreshUserToken(userService.getUser(name));
+        userService.waitForPermissionsToBeAvailable(new Service(ocService.getUrl(), currentUser));
+        return currentUser;
+    }
+
+    /**
+     * Provides platform user when its openshift permissions are available without blocking the caller
+     *
+     * @param name user name from platform users configuration
+     * @return {@link CompletableFuture} of {@link User} with valid token
+     */
+    public CompletableFuture<User> getAsync(String name) {
+        User currentUser = userService.refreshUserToken(userService.getUser(name));
+        return userService.waitForPermissionsToBeAvailableAsync(new Service(ocService.getUrl(), currentUser))
+                .thenApply(ignored -> userService.refreshUserToken(currentUser));
+    }
+
+    /**
+     * Create all configured platform users in keycloak in parallel, should be called once before tests, e.g. from
+     * {@code @BeforeAll}. Parallelism is defined by {@code userProvisioningParallelism} system property.
+     *
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionAll() {
+        return userService.provisionUsers();
     }
 
     private Map<String, User> getPlatformUsersFromJson(String path) {
@@ -17,22 +17,23 @@
 package platform.qa.providers.impl;
 
 import lombok.Getter;
+import platform.qa.entities.Service;
+import platform.qa.entities.TaskResult;
 import platform.qa.entities.User;
 import platform.qa.keycloak.KeycloakClient;
 import platform.qa.providers.api.AtomicOperation;
+import platform.qa.services.KeycloakTokenService;
 import platform.qa.services.UserService;
 import platform.qa.utils.ConfigurationUtils;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Provide registry users data by username
  */
 public class RegistryUserProvider implements AtomicOperation<User> {
-    private AtomicReference<User> user = new AtomicReference<>();
     @Getter
     private Map<String, User> users;
     @Getter private UserService userService;
@@ -42,19 +43,40 @@ public class RegistryUserProvider implements AtomicOperation<User> {
         userService = new UserService(users, keycloakClient);
     }
 
+    public RegistryUserProvider(String namespace, KeycloakClient keycloakClient, Service keycloak,
+                                String usersFilePath) {
+        this.users = getRegistryUsersFromJson(usersFilePath, namespace);
+        userService = new UserService(users, keycloakClient,
+                keycloak != null ? new KeycloakTokenService(keycloak.getUrl()) : null);
+    }
+
     @Override
     public User get(String name) {
-        return user.updateAndGet((user) -> {
-            User currentUser = userService.initUser(user, name);
-            return userService.refreshUserToken(currentUser);
-        });
+        return userService.refreshUserToken(userService.getUser(name));
     }
 
     public User get(String name, String namespace) {
-        return user.updateAndGet((user) -> {
-            User currentUser = userService.initUser(user, name, namespace);
-            return userService.refreshUserToken(currentUser);
-        });
+        return userService.refreshUserToken(userService.getUser(name, namespace));
+    }
+
+    /**
+     * Create all configured registry users in keycloak in parallel, should be called once before tests, e.g. from
+     * {@code @BeforeAll}. Parallelism is defined by {@code userProvisioningParallelism} system property.
+     *
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionAll() {
+        return userService.provisionUsers();
+    }
+
+    /**
+     * Create all configured registry users in keycloak for namespace in parallel
+     *
+     * @param namespace registry namespace
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionAll(String namespace) {
+        return userService.provisionUsers(namespace);
     }
 
     private Map<String, User> getRegistryUsersFromJson(String path, String namespace) {
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.entities.User;
+import platform.qa.exceptions.KeycloakExceptions;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.net.ssl.SSLHandshakeException;
+
+/**
+ * Client of keycloak token endpoint that keeps refresh tokens of users, so tokens are renewed with
+ * {@code refresh_token} grant and password grant is used only when refresh token is missing, expired or rejected.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          String token = new KeycloakTokenService(centralConfig.getKeycloak().getUrl()).getAccessToken(user);
+ *      }
+ *  </p>
+ */
+@Log4j2
+public class KeycloakTokenService {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration RETRY_DELAY = Duration.ofMillis(250);
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Getter
+    private final String keycloakUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final Map<String, RefreshToken> refreshTokens = new ConcurrentHashMap<>();
+    //realm and client pairs that keycloak refused to grant directly, e.g. confidential clients
+    private final Set<String> unsupportedClients = ConcurrentHashMap.newKeySet();
+
+    public KeycloakTokenService(String keycloakUrl) {
+        this.keycloakUrl = keycloakUrl.endsWith("/") ? keycloakUrl : keycloakUrl + "/";
+    }
+
+    /**
+     * Provides new access token of user, renewed with refresh token of previous grant when it is still valid.
+     * Failed requests caused by network errors, throttling or keycloak server errors are retried.
+     *
+     * @param user {@link User} with realm, client id and credentials
+     * @return access token or null if keycloak refuses direct grants for user client
+     */
+    @SneakyThrows(KeycloakExceptions.TokenGrantException.class)
+    public String getAccessToken(User user) {
+        String clientKey = user.getRealm() + "/" + user.getClientId();
+        if (unsupportedClients.contains(clientKey)) {
+            return null;
+        }
+
+        String userKey = user.getRealm() + "/" + user.getLogin();
+        RefreshToken refreshToken = refreshTokens.get(userKey);
+        if (refreshToken != null && !refreshToken.isExpired()) {
+            TokenResponse response = requestToken(user, Map.of(
+                    "grant_type", "refresh_token",
+                    "refresh_token", refreshToken.value));
+            if (response.isSuccessful()) {
+                return keepRefreshToken(userKey, response.body);
+            }
+            if (response.isClientRefused()) {
+                return refuseClient(clientKey, response);
+            }
+            log.debug("Refresh token of user {} was rejected with {}, password grant is used", userKey,
+                    response.error);
+        }
+        refreshTokens.remove(userKey);
+
+        Map<String, String> passwordGrant = new LinkedHashMap<>();
+        passwordGrant.put("grant_type", "password");
+        passwordGrant.put("username", user.getLogin());
+        passwordGrant.put("password", user.getPassword());
+        TokenResponse response = requestToken(user, passwordGrant);
+        if (response.isSuccessful()) {
+            return keepRefreshToken(userKey, response.body);
+        }
+        if (response.isClientRefused()) {
+            return refuseClient(clientKey, response);
+        }
+        throw new KeycloakExceptions.TokenGrantException(String.format(
+                "Token of user %s was not granted, keycloak responded %d %s", userKey, response.status,
+                response.error));
+    }
+
+    //client does not allow direct grants, e.g. it is confidential, so tokens are obtained by keycloak client instead
+    private String refuseClient(String clientKey, TokenResponse response) {
+        log.warn("Direct grant is not available for client {} ({}), keycloak client is used instead", clientKey,
+                response.error);
+        unsupportedClients.add(clientKey);
+        return null;
+    }
+
+    private String keepRefreshToken(String userKey, JsonNode response) {
+        JsonNode refreshToken = response.get("refresh_token");
+        if (refreshToken != null) {
+            long refreshExpiresIn = response.path("refresh_expires_in").asLong(0L);
+            refreshTokens.put(userKey, new RefreshToken(refreshToken.asText(), refreshExpiresIn > 0
+                    ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(refreshExpiresIn)
+                    : Long.MAX_VALUE));
+        }
+        return response.get("access_token").asText();
+    }
+
+    /**
+     * Request is retried on network errors, throttling and server errors, the last failure is thrown as is
+     */
+    @SneakyThrows
+    private TokenResponse requestToken(User user, Map<String, String> grant) {
+        Map<String, String> form = new LinkedHashMap<>(grant);
+        form.put("client_id", user.getClientId());
+
+        HttpRequest request = HttpRequest.newBuilder(getTokenEndpoint(user.getRealm()))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(encode(form)))
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                TokenResponse tokenResponse = TokenResponse.of(response.statusCode(), response.body());
+                if (!tokenResponse.isTransient() || attempt == MAX_ATTEMPTS) {
+                    return tokenResponse;
+                }
+                log.debug("Token endpoint responded {}, request is retried", response.statusCode());
+            } catch (SSLHandshakeException e) {
+                return TokenResponse.refused(e.getMessage());
+            } catch (IOException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Token endpoint is not available: {}, request is retried", e.getMessage());
+            }
+            TimeUnit.MILLISECONDS.sleep(RETRY_DELAY.toMillis() * attempt);
+        }
+    }
+
+    private URI getTokenEndpoint(String realm) {
+        String path = System.getProperty("keycloakTokenPath", "auth/realms/%s/protocol/openid-connect/token");
+        return URI.create(keycloakUrl + String.format(path, realm));
+    }
+
+    private static String encode(Map<String, String> form) {
+        return form.entrySet()
+                .stream()
+                .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    private static final class TokenResponse {
+        private static final Set<String> REFUSED_CLIENT_ERRORS = Set.of("unauthorized_client", "invalid_client");
+
+        private final int status;
+        private final JsonNode body;
+        private final String error;
+
+        private TokenResponse(int status, JsonNode body, String error) {
+            this.status = status;
+            this.body = body;
+            this.error = error;
+        }
+
+        private static TokenResponse of(int status, String body) {
+            JsonNode json = null;
+            try {
+                json = MAPPER.readTree(body);
+            } catch (IOException e) {
+                log.debug("Token endpoint responded with not json body: {}", e.getMessage());
+            }
+            json = json != null ? json : MAPPER.missingNode();
+            return new TokenResponse(status, json, json.path("error").asText(body));
+        }
+
+        private static TokenResponse refused(String error) {
+            return new TokenResponse(0, MAPPER.missingNode(), error);
+        }
+
+        private boolean isSuccessful() {
+            return status == 200 && body.hasNonNull("access_token");
+        }
+
+        //ssl handshake failure or explicit refusal of client, e.g. client is confidential or has no direct grants
+        private boolean isClientRefused() {
+            return status == 0 || (status == 400 || status == 401) && REFUSED_CLIENT_ERRORS.contains(error);
+        }
+
+        private boolean isTransient() {
+            return status == 429 || status >= 500;
+        }
+    }
+
+    private static final class RefreshToken {
+        private final String value;
+        private final long expireTime;
+
+        private RefreshToken(String value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+
+        //refresh token is not used when it expires within a few seconds
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expireTime - TimeUnit.SECONDS.toMillis(5);
+        }
+    }
+}
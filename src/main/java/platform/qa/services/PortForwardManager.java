@@ -0,0 +1,204 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.services;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.LocalPortForward;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.cache.CacheKey;
+import platform.qa.cache.Memoizer;
+import platform.qa.metrics.Metrics;
+import platform.qa.oc.OkdClient;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of port forwards by namespace, pod selector and remote port.
+ * Live forwards are reused, dead forwards are forwarded again. Pods of forwards are probed in background every
+ * {@code portForwardProbeInterval} seconds (default is 5), forwards to removed pods are closed, so the next call
+ * forwards to a new pod. Values memoized by {@link Memoizer} that use forward are resolved again when forward is
+ * replaced or closed, so configuration getters provide actual local port. Forwards are closed on JVM shutdown,
+ * forwards that were not requested during {@code portForwardIdleTimeout} seconds are closed earlier (disabled by
+ * default).
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          int port = PortForwardManager.forward(ocClient, "redis-sentinel", 26379, () -> findPodName());
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class PortForwardManager {
+    private static final Memoizer FORWARDS = new Memoizer();
+    private static final ScheduledExecutorService SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(ConcurrencyUtils.daemonThreadFactory());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PortForwardManager::closeAll));
+
+        long probeInterval = Long.parseLong(System.getProperty("portForwardProbeInterval", "5"));
+        if (probeInterval > 0) {
+            SCHEDULER.scheduleWithFixedDelay(logFailure("probe", PortForwardManager::closeRemoved), probeInterval,
+                    probeInterval, TimeUnit.SECONDS);
+        }
+
+        long idleTimeout = Long.parseLong(System.getProperty("portForwardIdleTimeout", "0"));
+        if (idleTimeout > 0) {
+            SCHEDULER.scheduleWithFixedDelay(
+                    logFailure("idle cleanup", () -> closeIdle(TimeUnit.SECONDS.toNanos(idleTimeout))),
+                    idleTimeout, idleTimeout, TimeUnit.SECONDS);
+        }
+    }
+
+    private PortForwardManager() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Provides local port forwarded to pod. Live forward with the same key is reused, dead forward or forward to
+     * removed pod is forwarded again to pod provided by resolver on a new ephemeral local port.
+     * Concurrent calls for the same key wait for the forward opened by the first call.
+     *
+     * @param ocClient    {@link OkdClient} client for k8s
+     * @param podKey      pod name or pod selector that identifies forward inside namespace
+     * @param remotePort  pod port
+     * @param podResolver provides name of pod to forward
+     * @return local port
+     */
+    public static int forward(OkdClient ocClient, String podKey, int remotePort, Supplier<String> podResolver) {
+        String key = CacheKey.of(ocClient) + "|" + podKey + "|" + remotePort;
+
+        AtomicBoolean opened = new AtomicBoolean();
+        ManagedForward forward = FORWARDS.get(key,
+                () -> Metrics.time(Metrics.PORT_FORWARD, Metrics.namespaceOf(ocClient), podKey, () -> {
+                    opened.set(true);
+                    return open(ocClient, podResolver.get(), remotePort);
+                }),
+                ManagedForward::isAlive,
+                stale -> {
+                    log.info("Port forward {} to pod {} is not alive, forwarding again", key, stale.podName);
+                    stale.close();
+                });
+        if (!opened.get()) {
+            Metrics.cacheHit(Metrics.PORT_FORWARD, Metrics.namespaceOf(ocClient), podKey);
+        }
+        forward.lastAccess = System.nanoTime();
+        Memoizer.dependOn(() -> FORWARDS.getIfResolved(key) == forward && forward.isAlive());
+        return forward.localPort;
+    }
+
+    /**
+     * Close forwards that were not requested during provided time.
+     * Memoized values that use closed forwards are resolved again on the next call.
+     *
+     * @param idleNanos idle time in nanoseconds
+     */
+    public static void closeIdle(long idleNanos) {
+        long now = System.nanoTime();
+        FORWARDS.<ManagedForward>getResolved().forEach((key, forward) -> {
+            if (now - forward.lastAccess >= idleNanos && FORWARDS.invalidate(key, forward)) {
+                log.info("Closing idle port forward {}", key);
+                forward.close();
+            }
+        });
+    }
+
+    /**
+     * Close forwards to pods that were removed or are being deleted, so the next call forwards to a new pod.
+     * Called by background scheduler, so callers of {@link #forward(OkdClient, String, int, Supplier)} never wait
+     * for API server.
+     */
+    public static void closeRemoved() {
+        FORWARDS.<ManagedForward>getResolved().forEach((key, forward) -> {
+            if (!forward.isPodPresent() && FORWARDS.invalidate(key, forward)) {
+                log.info("Pod {} of port forward {} was removed, closing forward", forward.podName, key);
+                forward.close();
+            }
+        });
+    }
+
+    /**
+     * Close all managed forwards
+     */
+    public static void closeAll() {
+        FORWARDS.<ManagedForward>getResolved().values().forEach(ManagedForward::close);
+        FORWARDS.invalidateAll();
+    }
+
+    //failed run of periodic task cancels its next runs, so failure is only logged
+    private static Runnable logFailure(String task, Runnable action) {
+        return () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.warn("Port forward {} failed: {}", task, e.getMessage());
+            }
+        };
+    }
+
+    private static ManagedForward open(OkdClient ocClient, String podName, int remotePort) {
+        //forward binds ephemeral local port itself and keeps it bound, so concurrent forwards never collide and
+        //values that depend on replaced forward get the new port when they are resolved again
+        LocalPortForward portForward = ocClient.getOsClient().pods().withName(podName).portForward(remotePort);
+        return new ManagedForward(ocClient, podName, portForward);
+    }
+
+    private static final class ManagedForward {
+        private final OkdClient ocClient;
+        private final String podName;
+        private final LocalPortForward portForward;
+        private final int localPort;
+        private volatile long lastAccess = System.nanoTime();
+
+        private ManagedForward(OkdClient ocClient, String podName, LocalPortForward portForward) {
+            this.ocClient = ocClient;
+            this.podName = podName;
+            this.portForward = portForward;
+            this.localPort = portForward.getLocalPort();
+        }
+
+        //called on each access, so it checks only local state of forward
+        private boolean isAlive() {
+            return portForward.isAlive() && !portForward.errorOccurred();
+        }
+
+        private boolean isPodPresent() {
+            try {
+                var pod = ocClient.getOsClient().pods().withName(podName).get();
+                return pod != null && pod.getMetadata().getDeletionTimestamp() == null;
+            } catch (KubernetesClientException e) {
+                //pod state is unknown, dead forward is detected by isAlive on the next access anyway
+                log.warn("Pod {} of port forward was not probed: {}", podName, e.getMessage());
+                return true;
+            }
+        }
+
+        private void close() {
+            try {
+                portForward.close();
+            } catch (IOException e) {
+                log.debug("Port forward to pod {} was not closed: {}", podName, e.getMessage());
+            }
+        }
+    }
+}
@@ -20,33 +20,189 @@ import static org.awaitility.Awaitility.await;
 
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import platform.qa.cache.Memoizer;
+import platform.qa.cache.SharedFileCache;
+import platform.qa.cache.UserProvisioningState;
 import platform.qa.entities.Service;
+import platform.qa.entities.TaskResult;
 import platform.qa.entities.User;
 import platform.qa.keycloak.KeycloakClient;
+import platform.qa.metrics.Metrics;
 import platform.qa.oc.OkdClient;
+import platform.qa.utils.ConcurrencyUtils;
+import platform.qa.utils.JwtUtils;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.assertj.core.api.Assertions;
+import org.awaitility.pollinterval.IterativePollInterval;
 
 /**
  * Service to implement manipulations with users
  */
+@Log4j2
 public class UserService {
+    //used when token is not JWT and its expiration time is unknown
+    private static final long DEFAULT_TOKEN_LIFETIME = TimeUnit.MINUTES.toMillis(4);
+    //users that were not requested during this time are not refreshed in background anymore
+    private static final long REFRESH_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+    private static final ScheduledExecutorService TOKEN_REFRESHER =
+            Executors.newSingleThreadScheduledExecutor(ConcurrencyUtils.daemonThreadFactory());
+    private static final ExecutorService PERMISSION_CHECKER =
+            Executors.newCachedThreadPool(ConcurrencyUtils.daemonThreadFactory());
+    private static final Duration MAX_PERMISSION_POLL_INTERVAL = Duration.ofSeconds(30);
+    private static final Map<String, CompletableFuture<AccessToken>> IN_FLIGHT_GRANTS = new ConcurrentHashMap<>();
+    private static final AtomicLong TOKEN_GRANTS = new AtomicLong();
+    private static final AtomicLong COALESCED_REFRESHES = new AtomicLong();
 
     @Getter
     private Map<String, User> testUsers;
     private final KeycloakClient keycloakClient;
+    private final KeycloakTokenService tokenService;
+    private final Memoizer createdUsers = new Memoizer();
+    private volatile String provisioningScope;
+    //token and its times are replaced together, so readers never see token with expiration of another one
+    private final Map<String, AccessToken> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> tokenLastAccess = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> refreshTasks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> permissionChecks = new ConcurrentHashMap<>();
+    //users whose creation was skipped by provisioning state, they are created again if they fail to log in
+    private final Map<String, Runnable> skippedCreations = new ConcurrentHashMap<>();
 
     public UserService(Map<String, User> testUsers, KeycloakClient keycloakClient) {
+        this(testUsers, keycloakClient, null);
+    }
+
+    /**
+     * @param testUsers      users configuration
+     * @param keycloakClient {@link KeycloakClient} to create users and obtain tokens
+     * @param tokenService   {@link KeycloakTokenService} to renew tokens with refresh token grant,
+     *                       tokens are obtained with {@code keycloakClient} only if null
+     */
+    public UserService(Map<String, User> testUsers, KeycloakClient keycloakClient, KeycloakTokenService tokenService) {
         this.testUsers = testUsers;
         this.keycloakClient = keycloakClient;
+        this.tokenService = tokenService;
+        this.provisioningScope = tokenService != null ? tokenService.getKeycloakUrl() : null;
+    }
+
+    /**
+     * Define keycloak users are created in, so {@link UserProvisioningState} of different keycloaks is not mixed.
+     * Keycloak url of token service is used by default, differential provisioning is not applied if scope is unknown.
+     *
+     * @param provisioningScope url of keycloak or of cluster with keycloak
+     */
+    public void setProvisioningScope(String provisioningScope) {
+        this.provisioningScope = provisioningScope;
+    }
+
+    /**
+     * Provides test user by name, user is created in keycloak only on the first call.
+     * Concurrent calls for the same user wait for the creation in progress.
+     *
+     * @param name user name from users configuration
+     * @return created {@link User}
+     */
+    public User getUser(String name) {
+        return createdUsers.get(name, () -> {
+            User user = testUsers.get(name);
+            createUser(user, null);
+            return user;
+        });
+    }
+
+    /**
+     * Provides test user by name, user is created in keycloak for namespace only on the first call
+     *
+     * @param name      user name from users configuration
+     * @param namespace registry namespace
+     * @return created {@link User}
+     */
+    public User getUser(String name, String namespace) {
+        return createdUsers.get(namespace + "/" + name, () -> {
+            User user = testUsers.get(name);
+            createUser(user, namespace);
+            return user;
+        });
+    }
+
+    /**
+     * Create all configured users in keycloak in parallel, parallelism is defined by
+     * {@code userProvisioningParallelism} system property, default is 8
+     *
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionUsers() {
+        return provisionUsers(getProvisioningParallelism());
+    }
+
+    /**
+     * Create all configured users in keycloak for namespace in parallel, parallelism is defined by
+     * {@code userProvisioningParallelism} system property, default is 8
+     *
+     * @param namespace registry namespace
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionUsers(String namespace) {
+        return provisionUsers(namespace, getProvisioningParallelism());
+    }
+
+    /**
+     * Create all configured users in keycloak in parallel, users that were created already are not created again.
+     * Failure of one user does not stop the others, it is reported in its {@link TaskResult} and logged.
+     *
+     * @param parallelism max number of users created at the same time
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionUsers(int parallelism) {
+        Map<String, Callable<User>> tasks = new LinkedHashMap<>();
+        testUsers.keySet().forEach(name -> tasks.put(name, () -> getUser(name)));
+        return logProvisioning(ConcurrencyUtils.invokeAll(tasks, parallelism));
+    }
+
+    /**
+     * Create all configured users in keycloak for namespace in parallel
+     *
+     * @param namespace   registry namespace
+     * @param parallelism max number of users created at the same time
+     * @return {@link Map} of {@link TaskResult} with created {@link User} by user name
+     */
+    public Map<String, TaskResult<User>> provisionUsers(String namespace, int parallelism) {
+        Map<String, Callable<User>> tasks = new LinkedHashMap<>();
+        testUsers.keySet().forEach(name -> tasks.put(name, () -> getUser(name, namespace)));
+        return logProvisioning(ConcurrencyUtils.invokeAll(tasks, parallelism));
+    }
+
+    private static Map<String, TaskResult<User>> logProvisioning(Map<String, TaskResult<User>> results) {
+        results.forEach((name, result) -> {
+            if (result.isSuccessful()) {
+                log.debug("User {} provisioned in {} ms", name, result.getDurationMillis());
+            } else {
+                log.error("User {} was not provisioned: {}", name, result.getError().getMessage());
+            }
+        });
+        return results;
+    }
+
+    private static int getProvisioningParallelism() {
+        return Integer.parseInt(System.getProperty("userProvisioningParallelism", "8"));
     }
 
     public User initUser(User user, String loginName) {
         if (user == null || !user.getLogin().equals(loginName)) {
             user = testUsers.get(loginName);
-            keycloakClient.createUser(user);
+            createUser(user, null);
         }
         return user;
     }
@@ -54,37 +210,317 @@ public class UserService {
     public User initUser(User user, String loginName, String namespace) {
         if (user == null || !user.getLogin().equals(loginName)) {
             user = testUsers.get(loginName);
-            keycloakClient.createUser(user, namespace);
+            createUser(user, namespace);
         }
         return user;
     }
 
+    /**
+     * Provides user with valid token, token is obtained from keycloak only if it is missing or expires within
+     * {@code tokenExpirySkew} seconds. Tokens of users that are in use are refreshed in background before expiration,
+     * so callers don't wait for keycloak.
+     *
+     * @param user {@link User} to refresh token for
+     * @return {@link User} with valid token and time it was obtained
+     */
     public User refreshUserToken(User user) {
-        if (isTokenExpired(user)) {
-            user.setToken(keycloakClient.getAccessToken(user.getRealm(), user));
-            user.setTokenExpireTime(System.currentTimeMillis());
-        }
+        getValidToken(user);
         return user;
     }
 
+    /**
+     * Provides copy of user with valid token. Token of the copy is not changed by background refresh, so the copy
+     * could be used by one caller while the shared user is refreshed for the others.
+     * Token is taken from immutable snapshot, so the copy is built without locking the shared user.
+     *
+     * @param user {@link User} to refresh token for
+     * @return copy of {@link User} with valid token and time it was obtained
+     */
+    public User copyWithValidToken(User user) {
+        AccessToken token = getValidToken(user);
+        User copy = new User(user.getLogin(), user.getPassword());
+        copy.setRealm(user.getRealm());
+        copy.setClientId(user.getClientId());
+        copy.setRealmRoles(user.getRealmRoles());
+        copy.setAttributes(user.getAttributes());
+        copy.setToken(token.value);
+        copy.setTokenExpireTime(token.obtainedTime);
+        return copy;
+    }
+
+    /**
+     * Wait until openshift permissions of user are synced, polling starts with short interval that grows up to
+     * 30 seconds. Readiness is cached per user, so only the first call waits.
+     *
+     * @param ocService openshift {@link Service} with user to check permissions for
+     */
     public void waitForPermissionsToBeAvailable(Service ocService) {
+        ConcurrencyUtils.await(waitForPermissionsToBeAvailableAsync(ocService));
+    }
+
+    /**
+     * Starts waiting for openshift permissions of user in background, so other setup can continue meanwhile.
+     * Concurrent calls for the same user share one wait, failed wait is started again on the next call.
+     *
+     * @param ocService openshift {@link Service} with user to check permissions for
+     * @return {@link CompletableFuture} completed when permissions are available
+     */
+    public CompletableFuture<Void> waitForPermissionsToBeAvailableAsync(Service ocService) {
+        String key = ocService.getUrl() + "/" + ocService.getUser().getLogin();
+        CompletableFuture<Void> check = permissionChecks.computeIfAbsent(key,
+                ignored -> CompletableFuture.runAsync(() -> Metrics.time(Metrics.PERMISSION_WAIT, "user-management",
+                        ocService.getUser().getLogin(), () -> {
+                            pollPermissions(ocService);
+                            return null;
+                        }), PERMISSION_CHECKER));
+        check.whenComplete((ignored, error) -> {
+            if (error != null) {
+                permissionChecks.remove(key, check);
+            }
+        });
+        return check;
+    }
+
+    private void pollPermissions(Service ocService) {
         await()
-                .pollInterval(30, TimeUnit.SECONDS)
+                .pollDelay(Duration.ZERO)
+                .pollInterval(IterativePollInterval.iterative(
+                        interval -> min(interval.multipliedBy(2), MAX_PERMISSION_POLL_INTERVAL),
+                        Duration.ofMillis(50)))
                 .pollInSameThread()
                 .atMost(5, TimeUnit.MINUTES)
                 .ignoreException(KubernetesClientException.class)
                 .untilAsserted(() -> {
+                    //each poll logs in again, login with pooled client would not detect that permissions are synced
                     var ocClient = new OkdClient(ocService, "user-management");
-                    var user1 = ocClient.getCredentials("keycloak");
-                    ocClient.getOsClient().close();
+                    User user1;
+                    try {
+                        user1 = Metrics.time(Metrics.SECRET, "user-management", "keycloak",
+                                () -> ocClient.getCredentials("keycloak"));
+                    } finally {
+                        ocClient.getOsClient().close();
+                    }
                     Assertions.assertThat(user1.getPassword())
                             .withFailMessage("User is not synced for openshift: " + ocService.getUser())
                             .isNotEmpty();
                 });
     }
 
-    private boolean isTokenExpired(User user) {
-        //240000l it's milliseconds that means 4 min
-        return user.getTokenExpireTime() == 0L || System.currentTimeMillis() - user.getTokenExpireTime() >= 240000L;
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    /**
+     * Provides statistics of token grants: {@code grants} - tokens obtained from keycloak,
+     * {@code coalesced} - refreshes that joined grant in progress of another thread instead of requesting keycloak
+     *
+     * @return {@link Map} of counters by name
+     */
+    public static Map<String, Long> getTokenGrantStatistics() {
+        return Map.of("grants", TOKEN_GRANTS.get(), "coalesced", COALESCED_REFRESHES.get());
+    }
+
+    /**
+     * User is not created again if the same definition was created in the same keycloak and namespace before,
+     * see {@link UserProvisioningState}
+     */
+    private void createUser(User user, String namespace) {
+        String scope = provisioningScope != null ? provisioningScope + "|" + namespace : null;
+        if (scope == null && UserProvisioningState.isEnabled()) {
+            log.warn("Keycloak of user {} is unknown, differential provisioning is not applied", user.getLogin());
+        }
+        if (scope != null && UserProvisioningState.isProvisioned(scope, user)) {
+            log.debug("User {} in realm {} is not changed, creation is skipped", user.getLogin(), user.getRealm());
+            skippedCreations.put(getTokenKey(user), () -> {
+                UserProvisioningState.forget(scope, user);
+                createUser(user, namespace);
+            });
+            return;
+        }
+
+        Metrics.time(Metrics.CREATE_USER, namespace != null ? namespace : user.getRealm(), user.getLogin(), () -> {
+            if (namespace == null) {
+                keycloakClient.createUser(user);
+            } else {
+                keycloakClient.createUser(user, namespace);
+            }
+            return user;
+        });
+
+        if (scope != null) {
+            UserProvisioningState.markProvisioned(scope, user);
+        }
+    }
+
+    private AccessToken getValidToken(User user) {
+        tokenLastAccess.put(getTokenKey(user), System.currentTimeMillis());
+        AccessToken token = getCurrentToken(user);
+        if (isExpired(token)) {
+            return obtainToken(user, false);
+        }
+        Metrics.cacheHit(Metrics.TOKEN_GRANT, user.getRealm(), user.getLogin());
+        return token;
+    }
+
+    private AccessToken obtainToken(User user, boolean force) {
+        AccessToken token = grantToken(user, force);
+        tokens.put(getTokenKey(user), token);
+        synchronized (user) {
+            user.setToken(token.value);
+            //keeps its meaning of time token was obtained, expiration is tracked by AccessToken only
+            user.setTokenExpireTime(token.obtainedTime);
+        }
+        scheduleRefresh(user, token);
+        return token;
+    }
+
+    /**
+     * Concurrent grants for the same realm and login are coalesced into one keycloak request, its result is shared
+     * by all waiting threads. Token granted by another thread just before is reused unless grant is forced, e.g. by
+     * background refresh that renews token before it is considered expired.
+     */
+    private AccessToken grantToken(User user, boolean force) {
+        String key = getTokenKey(user);
+        CompletableFuture<AccessToken> grant = new CompletableFuture<>();
+        CompletableFuture<AccessToken> inFlight = IN_FLIGHT_GRANTS.putIfAbsent(key, grant);
+
+        if (inFlight != null) {
+            COALESCED_REFRESHES.incrementAndGet();
+            return ConcurrencyUtils.await(inFlight);
+        }
+
+        try {
+            AccessToken current = getCurrentToken(user);
+            if (!force && !isExpired(current)) {
+                grant.complete(current);
+                return current;
+            }
+
+            String value = SharedFileCache.isEnabled() && tokenService != null
+                    ? getSharedToken(user)
+                    : requestToken(user);
+            AccessToken token = AccessToken.of(value, System.currentTimeMillis());
+            grant.complete(token);
+            return token;
+        } catch (Throwable e) {
+            grant.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT_GRANTS.remove(key, grant);
+        }
+    }
+
+    /**
+     * Token is shared with other JVMs until background refresh time, so the first JVM that refreshes it obtains
+     * a new one and the others reuse it
+     */
+    private String getSharedToken(User user) {
+        return SharedFileCache.get("token|" + tokenService.getKeycloakUrl() + "|" + getTokenKey(user), () -> {
+            String token = requestToken(user);
+            long expirationTime = JwtUtils.getExpirationTime(token);
+            return new SharedFileCache.Entry(token, expirationTime > 0 ? expirationTime - 2 * getExpirySkew() : 0L);
+        });
+    }
+
+    /**
+     * User skipped by {@link UserProvisioningState} could be deleted from keycloak since it was created,
+     * so such user is forgotten and created again once if its token is not granted
+     */
+    private String requestToken(User user) {
+        try {
+            return grantFromKeycloak(user);
+        } catch (Exception e) {
+            Runnable recreation = skippedCreations.remove(getTokenKey(user));
+            if (recreation == null) {
+                throw e;
+            }
+            log.warn("Token of user {} skipped by provisioning state was not granted, user is created again: {}",
+                    getTokenKey(user), e.getMessage());
+            recreation.run();
+            return grantFromKeycloak(user);
+        }
+    }
+
+    private String grantFromKeycloak(User user) {
+        TOKEN_GRANTS.incrementAndGet();
+        return Metrics.time(Metrics.TOKEN_GRANT, user.getRealm(), user.getLogin(), () -> {
+            String token = tokenService != null ? tokenService.getAccessToken(user) : null;
+            return token != null ? token : keycloakClient.getAccessToken(user.getRealm(), user);
+        });
+    }
+
+    private void scheduleRefresh(User user, AccessToken token) {
+        if (!Boolean.parseBoolean(System.getProperty("tokenBackgroundRefresh", "true"))) {
+            return;
+        }
+
+        long delay = token.expireTime - 2 * getExpirySkew() - System.currentTimeMillis();
+        if (delay <= 0) {
+            return;
+        }
+
+        ScheduledFuture<?> previous = refreshTasks.put(getTokenKey(user),
+                TOKEN_REFRESHER.schedule(() -> refreshInBackground(user), delay, TimeUnit.MILLISECONDS));
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void refreshInBackground(User user) {
+        String key = getTokenKey(user);
+        Long lastAccess = tokenLastAccess.get(key);
+
+        if (lastAccess == null || System.currentTimeMillis() - lastAccess > REFRESH_IDLE_TIMEOUT) {
+            refreshTasks.remove(key);
+            return;
+        }
+
+        try {
+            obtainToken(user, true);
+        } catch (Exception e) {
+            log.warn("Token of user {} was not refreshed in background: {}", key, e.getMessage());
+        }
+    }
+
+    //token of user that was not obtained by this service is taken from user itself
+    private AccessToken getCurrentToken(User user) {
+        AccessToken token = tokens.get(getTokenKey(user));
+        if (token != null) {
+            return token;
+        }
+        synchronized (user) {
+            return user.getToken() != null ? AccessToken.of(user.getToken(), user.getTokenExpireTime()) : null;
+        }
+    }
+
+    private static boolean isExpired(AccessToken token) {
+        return token == null || System.currentTimeMillis() >= token.expireTime - getExpirySkew();
+    }
+
+    private static long getExpirySkew() {
+        return TimeUnit.SECONDS.toMillis(Long.parseLong(System.getProperty("tokenExpirySkew", "30")));
+    }
+
+    private static String getTokenKey(User user) {
+        return user.getRealm() + "/" + user.getLogin();
+    }
+
+    private static final class AccessToken {
+        private final String value;
+        private final long obtainedTime;
+        private final long expireTime;
+
+        private AccessToken(String value, long obtainedTime, long expireTime) {
+            this.value = value;
+            this.obtainedTime = obtainedTime;
+            this.expireTime = expireTime;
+        }
+
+        //expiration of token that is not JWT is counted from the time it was obtained
+        private static AccessToken of(String value, long obtainedTime) {
+            long expirationTime = JwtUtils.getExpirationTime(value);
+            return new AccessToken(value, obtainedTime,
+                    expirationTime > 0 ? expirationTime : obtainedTime + DEFAULT_TOKEN_LIFETIME);
+        }
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.utils;
+
+import lombok.SneakyThrows;
+import platform.qa.entities.TaskResult;
+import platform.qa.exceptions.ConfigurationExceptions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utilities for running independent configuration tasks in parallel on a bounded pool.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          Map<String, TaskResult<Service>> results = ConcurrencyUtils.invokeAll(tasks, 8);
+ *      }
+ *  </p>
+ */
+public final class ConcurrencyUtils {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private ConcurrencyUtils() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Execute all tasks on a pool limited by parallelism and wait for all of them.
+     * Failure of one task does not interrupt the others, it is reported in its {@link TaskResult}.
+     *
+     * @param tasks       tasks by key
+     * @param parallelism max number of tasks executed at the same time
+     * @param <T>         type of task value
+     * @return {@link Map} of {@link TaskResult} by task key in the same order as tasks
+     */
+    @SneakyThrows
+    public static <T> Map<String, TaskResult<T>> invokeAll(Map<String, ? extends Callable<? extends T>> tasks,
+                                                           int parallelism) {
+        Map<String, TaskResult<T>> results = new LinkedHashMap<>();
+        if (tasks.isEmpty()) {
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())),
+                daemonThreadFactory());
+        try {
+            Map<String, Future<TaskResult<T>>> futures = new LinkedHashMap<>();
+            tasks.forEach((key, task) -> futures.put(key, executor.submit(() -> execute(task))));
+
+            for (Map.Entry<String, Future<TaskResult<T>>> future : futures.entrySet()) {
+                results.put(future.getKey(), future.getValue().get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Provides values of all tasks or fails with all errors at once, so failure of one task is reported only after
+     * the other tasks are completed. Errors of tasks are attached as suppressed exceptions.
+     *
+     * @param results     {@link Map} of {@link TaskResult} by task key
+     * @param description what tasks initialize, used in error message, e.g. "Namespaces"
+     * @param <T>         type of task value
+     * @return {@link Map} of task values by task key in the same order as results
+     */
+    @SneakyThrows(ConfigurationExceptions.InitializationFailedException.class)
+    public static <T> Map<String, T> requireSuccessful(Map<String, TaskResult<T>> results, String description) {
+        Map<String, T> values = new LinkedHashMap<>();
+        Map<String, Throwable> errors = new LinkedHashMap<>();
+        results.forEach((key, result) -> {
+            if (result.isSuccessful()) {
+                values.put(key, result.getValue());
+            } else {
+                errors.put(key, result.getError());
+            }
+        });
+        if (errors.isEmpty()) {
+            return values;
+        }
+
+        StringBuilder message = new StringBuilder(description).append(" are not initialized:");
+        errors.forEach((key, error) -> message.append(System.lineSeparator())
+                .append(key).append(" - ").append(error.getMessage()));
+        var exception = new ConfigurationExceptions.InitializationFailedException(message.toString());
+        errors.values().forEach(exception::addSuppressed);
+        throw exception;
+    }
+
+    /**
+     * Wait for future result, failure of the future is rethrown as is instead of {@link CompletionException}
+     *
+     * @param future {@link CompletableFuture} to wait for
+     * @param <T>    type of future value
+     * @return future value
+     */
+    @SneakyThrows
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Provides {@link ThreadFactory} that creates daemon threads, so configuration pools never block JVM exit
+     *
+     * @return {@link ThreadFactory} with daemon threads
+     */
+    public static ThreadFactory daemonThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable, "platform-qa-config-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static <T> TaskResult<T> execute(Callable<? extends T> task) {
+        long start = System.nanoTime();
+        try {
+            T value = task.call();
+            return TaskResult.success(value, elapsedMillis(start));
+        } catch (Exception | AssertionError e) {
+            return TaskResult.failure(e, elapsedMillis(start));
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
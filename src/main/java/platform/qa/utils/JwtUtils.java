@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utilities for reading claims of JWT access tokens without signature verification.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          long expirationTime = JwtUtils.getExpirationTime(user.getToken());
+ *      }
+ *  </p>
+ */
+public final class JwtUtils {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JwtUtils() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Provides expiration time of token from its {@code exp} claim
+     *
+     * @param token JWT access token
+     * @return expiration time in milliseconds since epoch, 0 if token is not JWT or has no {@code exp} claim
+     */
+    public static long getExpirationTime(String token) {
+        if (token == null) {
+            return 0L;
+        }
+
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return 0L;
+        }
+
+        try {
+            JsonNode exp = MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+            return exp != null && exp.canConvertToLong() ? TimeUnit.SECONDS.toMillis(exp.asLong()) : 0L;
+        } catch (IOException | IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+}
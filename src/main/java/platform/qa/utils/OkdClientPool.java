@@ -0,0 +1,174 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa.utils;
+
+import lombok.extern.log4j.Log4j2;
+import platform.qa.cache.Memoizer;
+import platform.qa.entities.Service;
+import platform.qa.oc.OkdClient;
+
+import java.util.function.Function;
+
+/**
+ * Shared pool of {@link OkdClient} by cluster, user and namespace.
+ * Pooled clients reuse http connections and dispatcher threads across all configurations and are closed on JVM
+ * shutdown. Clients are reference counted, so clients without references could be closed by {@link #closeIdle()}.
+ * Example of usage:
+ *  <p>
+ *      {@code
+ *          OkdClient ocClient = OkdClientPool.acquire(ocService, "namespace");
+ *          User user = OkdClientPool.execute(ocService, "namespace", client -> client.getCredentials("secret"));
+ *      }
+ *  </p>
+ */
+@Log4j2
+public final class OkdClientPool {
+    private static final Memoizer CLIENTS = new Memoizer();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(OkdClientPool::closeAll));
+    }
+
+    private OkdClientPool() {
+        throw new IllegalStateException("This is utility class!");
+    }
+
+    /**
+     * Provides shared client and increments its reference count, client is created on first call.
+     * Concurrent calls for the same cluster, user and namespace wait for the client created by the first call.
+     * Reference should be returned by {@link #release(OkdClient)} when client is not needed anymore.
+     *
+     * @param ocService {@link Service} for k8s connection
+     * @param namespace k8s namespace, null for client without namespace
+     * @return shared {@link OkdClient}
+     */
+    public static OkdClient acquire(Service ocService, String namespace) {
+        String key = getKey(ocService, namespace);
+        while (true) {
+            PooledClient pooledClient = CLIENTS.get(key, () -> new PooledClient(namespace != null
+                    ? new OkdClient(ocService, namespace)
+                    : new OkdClient(ocService)));
+            if (pooledClient.retain()) {
+                return pooledClient.client;
+            }
+            //client was closed by closeIdle meanwhile, it is created again
+            CLIENTS.invalidate(key, pooledClient);
+        }
+    }
+
+    /**
+     * Return reference to shared client, client stays in pool to be reused
+     *
+     * @param ocClient {@link OkdClient} acquired from pool
+     */
+    public static void release(OkdClient ocClient) {
+        CLIENTS.<PooledClient>getResolved()
+                .values()
+                .stream()
+                .filter(pooled -> pooled.client == ocClient)
+                .findFirst()
+                .ifPresent(PooledClient::release);
+    }
+
+    /**
+     * Execute action with shared client and release it after execution
+     *
+     * @param ocService {@link Service} for k8s connection
+     * @param namespace k8s namespace
+     * @param action    action to execute
+     * @param <T>       type of action result
+     * @return action result
+     */
+    public static <T> T execute(Service ocService, String namespace, Function<OkdClient, T> action) {
+        OkdClient ocClient = acquire(ocService, namespace);
+        try {
+            return action.apply(ocClient);
+        } finally {
+            release(ocClient);
+        }
+    }
+
+    /**
+     * Close clients that have no references
+     */
+    public static void closeIdle() {
+        CLIENTS.<PooledClient>getResolved().forEach((key, pooled) -> {
+            if (pooled.closeIfIdle()) {
+                CLIENTS.invalidate(key, pooled);
+                close(pooled.client);
+            }
+        });
+    }
+
+    /**
+     * Close all pooled clients
+     */
+    public static void closeAll() {
+        CLIENTS.<PooledClient>getResolved().values().forEach(pooled -> {
+            pooled.markClosed();
+            close(pooled.client);
+        });
+        CLIENTS.invalidateAll();
+    }
+
+    private static void close(OkdClient ocClient) {
+        try {
+            ocClient.getOsClient().close();
+        } catch (Exception e) {
+            log.debug("Openshift client was not closed: " + e.getMessage());
+        }
+    }
+
+    private static String getKey(Service ocService, String namespace) {
+        String login = ocService.getUser() != null ? ocService.getUser().getLogin() : null;
+        return ocService.getUrl() + "|" + login + "|" + namespace;
+    }
+
+    private static final class PooledClient {
+        private final OkdClient client;
+        private int references;
+        private boolean closed;
+
+        private PooledClient(OkdClient client) {
+            this.client = client;
+        }
+
+        private synchronized boolean retain() {
+            if (closed) {
+                return false;
+            }
+            references++;
+            return true;
+        }
+
+        private synchronized void release() {
+            references = Math.max(0, references - 1);
+        }
+
+        private synchronized boolean closeIfIdle() {
+            if (closed || references > 0) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        private synchronized void markClosed() {
+            closed = true;
+        }
+    }
+}
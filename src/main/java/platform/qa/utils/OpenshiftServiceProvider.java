@@ -18,9 +18,16 @@ package platform.qa.utils;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
 import jodd.util.Base64;
 import lombok.SneakyThrows;
+import platform.qa.cache.CacheKey;
+import platform.qa.cache.NamespaceInformerCache;
+import platform.qa.cache.RouteCache;
+import platform.qa.cache.SharedFileCache;
 import platform.qa.configuration.MasterConfig;
 import platform.qa.entities.Ceph;
 import platform.qa.entities.Db;
@@ -28,19 +35,25 @@ import platform.qa.entities.Redis;
 import platform.qa.entities.Service;
 import platform.qa.entities.ServiceConfiguration;
 import platform.qa.entities.User;
-import platform.qa.extension.SocketAnalyzer;
+import platform.qa.enumeration.CitusUsers;
+import platform.qa.exceptions.OpenshiftClientExceptions;
+import platform.qa.metrics.Metrics;
 import platform.qa.oc.OkdClient;
+import platform.qa.services.PortForwardManager;
 
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import com.sun.istack.Nullable;
 
 public final class OpenshiftServiceProvider {
+    private static final long POD_PAGE_SIZE = 100L;
+    private static final String DEFAULT_POD_SELECTOR = "app";
 
     /**
      * Create {@link Service} with route by provided configuration.
@@ -52,7 +65,8 @@ public final class OpenshiftServiceProvider {
      * @return {@link Service} with route without user
      */
     public static Service getService(Service ocService, ServiceConfiguration configuration) {
-        var ocClient = new OkdClient(ocService, configuration.getNamespace());
+        //client is not released, it keeps port forwarding of the service alive
+        var ocClient = OkdClientPool.acquire(ocService, configuration.getNamespace());
 
         return getService(ocClient, configuration);
     }
@@ -69,8 +83,7 @@ public final class OpenshiftServiceProvider {
     @SneakyThrows
     public static Service getService(OkdClient ocClient, ServiceConfiguration configuration) {
         if (configuration.isPortForwarding() || !isRoutePresent(ocClient, configuration.getRoute())) {
-            int port = ocClient.performPortForwarding(configuration.getPodLabel(), configuration.getRoute(),
-                    configuration.getDefaultPort());
+            int port = forwardService(ocClient, configuration);
             return new Service("http://localhost:" + port + "/");
         }
 
@@ -90,8 +103,7 @@ public final class OpenshiftServiceProvider {
     @SneakyThrows
     public static Service getService(OkdClient ocClient, ServiceConfiguration configuration, User user) {
         if (configuration.isPortForwarding() || !isRoutePresent(ocClient, configuration.getRoute())) {
-            int port = ocClient.performPortForwarding(configuration.getPodLabel(), configuration.getRoute(),
-                    configuration.getDefaultPort());
+            int port = forwardService(ocClient, configuration);
             return new Service("http://localhost:" + port + "/", user);
         }
 
@@ -110,7 +122,8 @@ public final class OpenshiftServiceProvider {
     public static Db getDbService(OkdClient ocClient, ServiceConfiguration configuration) {
         Service citusService = getDbPodService(ocClient, configuration);
         citusService.setUrl(citusService.getUrl().replace("http", "jdbc:postgresql"));
-        var credentials = ocClient.getCredentials(configuration.getSecret());
+        var credentials = Metrics.time(Metrics.SECRET, Metrics.namespaceOf(ocClient), configuration.getSecret(),
+                () -> ocClient.getCredentials(configuration.getSecret()));
 
         return Db.builder()
                 .user(credentials.getLogin())
@@ -128,10 +141,26 @@ public final class OpenshiftServiceProvider {
      * @return {@link User} with username and password
      */
     public static User getUserSecretsBySecretNameAndKey(OkdClient ocClient, String secret, String key) {
-        Map<String, String> secrets = ocClient.getSecretsByName(secret);
-        String user = Base64.decodeToString(secrets.get(key + "Name"));
-        String pwd = Base64.decodeToString(secrets.get(key + "Pass"));
-        return new User(user, pwd);
+        return getUserFromSecrets(readSecret(ocClient, secret), key);
+    }
+
+    /**
+     * Initialize {@link User} for each {@link CitusUsers} role present in secret, secret is read only once
+     *
+     * @param ocClient {@link OkdClient} client for k8s
+     * @param secret   citus roles secret name
+     * @return immutable {@link Map} of {@link User} with username and password by {@link CitusUsers} role
+     */
+    public static Map<CitusUsers, User> getCitusUsers(OkdClient ocClient, String secret) {
+        Map<String, String> secrets = readSecret(ocClient, secret);
+        Map<CitusUsers, User> users = new EnumMap<>(CitusUsers.class);
+
+        for (CitusUsers role : CitusUsers.values()) {
+            if (secrets.containsKey(role.getRoleName() + "Name")) {
+                users.put(role, getUserFromSecrets(secrets, role.getRoleName()));
+            }
+        }
+        return Collections.unmodifiableMap(users);
     }
 
     /**
@@ -143,7 +172,7 @@ public final class OpenshiftServiceProvider {
      * @return decoded password from secret
      */
     public static String getPasswordFromSecretByKey(OkdClient ocClient, String secretName, String key) {
-        var secrets = ocClient.getSecretsByName(secretName);
+        var secrets = readSecret(ocClient, secretName);
         return Base64.decodeToString(secrets.get(key));
     }
 
@@ -156,8 +185,9 @@ public final class OpenshiftServiceProvider {
      * @return {@link Ceph} service with bucket name, secret keys and host
      */
     public static Ceph getCephService(OkdClient ocClient, String secretName, @Nullable String cephUrl) {
-        Map<String, String> secret = ocClient.getSecretsByName(secretName);
-        Map<String, String> configurationMap = ocClient.getConfigurationMap(secretName);
+        Map<String, String> secret = readSecret(ocClient, secretName);
+        Map<String, String> configurationMap = Metrics.time(Metrics.CONFIG_MAP, Metrics.namespaceOf(ocClient),
+                secretName, () -> ocClient.getConfigurationMap(secretName));
 
         ServiceConfiguration cephConfiguration =
                 MasterConfig.getInstance().getConfiguration().getCentralConfiguration().getCeph();
@@ -179,40 +209,16 @@ public final class OpenshiftServiceProvider {
      */
     @SneakyThrows
     public static Service getDbPodService(OkdClient ocClient, ServiceConfiguration configuration) {
-        var databasePods = ocClient
-                .getOsClient()
-                .pods()
-                .withLabel(configuration.getPodLabel())
-                .list()
-                .getItems();
-        var podName = databasePods
-                .stream()
-                .filter(pod -> pod.getMetadata().getName().contains(configuration.getRoute()))
-                .map(pod -> pod.getMetadata().getName())
-                .findFirst()
-                .orElseThrow();
-        int port = new SocketAnalyzer().getAvailablePort();
-        ocClient.getOsClient().pods().withName(podName).portForward(configuration.getDefaultPort(), port);
+        int port = forwardService(ocClient, configuration);
         return new Service("http://localhost:" + port + "/");
     }
 
 
-    @SneakyThrows
     public static Redis getRedisService(OkdClient ocClient, ServiceConfiguration configuration, User user) {
-        var podList = ocClient.getOsClient().pods().list();
-        var podToForward = podList.getItems()
-                .stream()
-                .filter(pod -> Objects.nonNull(pod.getMetadata()))
-                .filter(pod -> Objects.nonNull(pod.getMetadata().getName()))
-                .filter(pod -> pod.getMetadata().getName().contains(configuration.getPodLabel()))
-                .sorted(Comparator.comparing(current -> current.getMetadata().getName()))
-                .limit(1)
-                .map(pod -> pod.getMetadata().getName())
-                .findFirst()
-                .orElse(null);
         if (configuration.isPortForwarding()) {
-            int port = new SocketAnalyzer().getAvailablePort();
-            ocClient.getOsClient().pods().withName(podToForward).portForward(configuration.getDefaultPort(), port);
+            int port = PortForwardManager.forward(ocClient, configuration.getPodLabel(),
+                    configuration.getDefaultPort(), () -> requirePod(ocClient, configuration.getPodLabel(), null,
+                            getPodNames(ocClient, configuration).stream().sorted().findFirst()));
             return new Redis("http://localhost:" + port + "/", user.getPassword());
         }
         return null;
@@ -220,33 +226,58 @@ public final class OpenshiftServiceProvider {
 
     public static List<Redis> getRedisServices(OkdClient ocClient, ServiceConfiguration configuration, User user) {
         List<Redis> redisServices = new ArrayList<>();
-        PodList podList = ocClient.getOsClient().pods().list();
-
-        List<String> sentinelNames = podList.getItems()
-                .stream()
-                .filter(pod -> Objects.nonNull(pod.getMetadata()))
-                .filter(pod -> Objects.nonNull(pod.getMetadata().getName()))
-                .filter(pod -> pod.getMetadata().getName().contains(configuration.getPodLabel()))
-                .map(pod -> pod.getMetadata().getName())
-                .collect(Collectors.toList());
-
-        for (String pod : sentinelNames) {
-            if (configuration.isPortForwarding()) {
-                try (SocketAnalyzer socketAnalyzer = new SocketAnalyzer()) {
-                    int port = socketAnalyzer.getAvailablePort();
-                    ocClient.getOsClient().pods().withName(pod).portForward(configuration.getDefaultPort(), port);
-
-                    Redis redis = new Redis("http://localhost:" + port + "/", user.getPassword());
-                    redisServices.add(redis);
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        if (!configuration.isPortForwarding()) {
+            return redisServices;
+        }
+
+        List<String> sentinelNames = getPodNames(ocClient, configuration);
+        Collections.sort(sentinelNames);
+
+        for (int i = 0; i < sentinelNames.size(); i++) {
+            String podName = sentinelNames.get(i);
+            int port = PortForwardManager.forward(ocClient, configuration.getPodLabel() + "#" + i,
+                    configuration.getDefaultPort(), () -> podName);
+            redisServices.add(new Redis("http://localhost:" + port + "/", user.getPassword()));
         }
 
         return redisServices;
     }
 
+    /**
+     * Forward local port to the first pod with {@link ServiceConfiguration#getPodLabel()} label that contains
+     * {@link ServiceConfiguration#getRoute()} in name, the same pod that database forwards always used.
+     * Services were forwarded by {@code OkdClient.performPortForwarding} before, now forward is managed by
+     * {@link PortForwardManager}, so it is reused and forwarded again when pod is replaced.
+     */
+    private static int forwardService(OkdClient ocClient, ServiceConfiguration configuration) {
+        return PortForwardManager.forward(ocClient, configuration.getPodLabel() + "/" + configuration.getRoute(),
+                configuration.getDefaultPort(), () -> requirePod(ocClient, configuration.getPodLabel(),
+                        configuration.getRoute(), getPodsWithLabel(ocClient, configuration.getPodLabel())
+                                .stream()
+                                .map(pod -> pod.getMetadata().getName())
+                                .filter(name -> name.contains(configuration.getRoute()))
+                                .findFirst()));
+    }
+
+    @SneakyThrows(OpenshiftClientExceptions.PodNotFoundException.class)
+    private static String requirePod(OkdClient ocClient, String podLabel, @Nullable String route,
+                                     Optional<String> podName) {
+        return podName.orElseThrow(() -> new OpenshiftClientExceptions.PodNotFoundException(String.format(
+                "Pod with label %s%s is not found in namespace %s", podLabel,
+                route != null ? " and " + route + " in name" : "", ocClient.getOsClient().getNamespace())));
+    }
+
+    private static Map<String, String> readSecret(OkdClient ocClient, String secret) {
+        return Metrics.time(Metrics.SECRET, Metrics.namespaceOf(ocClient), secret,
+                () -> ocClient.getSecretsByName(secret));
+    }
+
+    private static User getUserFromSecrets(Map<String, String> secrets, String key) {
+        String user = Base64.decodeToString(secrets.get(key + "Name"));
+        String pwd = Base64.decodeToString(secrets.get(key + "Pass"));
+        return new User(user, pwd);
+    }
+
     private static boolean isRoutePresent(OkdClient okdClient, String route) {
         return getRouteValue(okdClient, route) != null;
     }
@@ -258,10 +289,93 @@ public final class OpenshiftServiceProvider {
         return result;
     }
 
+    /**
+     * Running informer keeps routes up to date, so shared file cache is used only when there is no informer
+     */
     private static String getRouteValue(OkdClient ocClient, String route) {
-        HashMap<String, String> routes = ocClient.getOkdRoutes();
-        List<String> matchedRoutes =
-                routes.keySet().stream().filter(r -> r.contains(route)).collect(Collectors.toList());
-        return matchedRoutes.size() == 1 ? routes.get(matchedRoutes.get(0)) : routes.get(route);
+        return Metrics.time(Metrics.ROUTE, Metrics.namespaceOf(ocClient), route, () -> {
+            if (NamespaceInformerCache.isEnabled()) {
+                return NamespaceInformerCache.get(ocClient).getRouteIndex().find(route);
+            }
+            if (SharedFileCache.isEnabled()) {
+                return SharedFileCache.get("route|" + CacheKey.of(ocClient) + "|" + route,
+                        () -> new SharedFileCache.Entry(RouteCache.getIndex(ocClient).find(route),
+                                System.currentTimeMillis() + RouteCache.getTtlMillis()));
+            }
+            return RouteCache.getIndex(ocClient).find(route);
+        });
+    }
+
+    /**
+     * Provides names of pods that contain {@link ServiceConfiguration#getPodLabel()} in name.
+     * Pods are filtered on server side by {@link ServiceConfiguration#getPodSelectors()}, {@code app=<podLabel>}
+     * selector is used if they are not defined. Only if no pod has default selector, pods are listed by pages, so the
+     * whole namespace is not loaded at once.
+     */
+    private static List<String> getPodNames(OkdClient ocClient, ServiceConfiguration configuration) {
+        if (configuration.getPodSelectors() != null) {
+            return getPodNames(ocClient, configuration, configuration.getPodSelectors());
+        }
+
+        List<String> podNames = getPodNames(ocClient, configuration,
+                List.of(DEFAULT_POD_SELECTOR + "=" + configuration.getPodLabel()));
+        return podNames.isEmpty() ? getPodNames(ocClient, configuration, List.of()) : podNames;
+    }
+
+    private static List<String> getPodNames(OkdClient ocClient, ServiceConfiguration configuration,
+                                            List<String> selectors) {
+        if (NamespaceInformerCache.isEnabled()) {
+            return NamespaceInformerCache.get(ocClient).getPods()
+                    .stream()
+                    .filter(pod -> selectors.stream().allMatch(selector -> isSelectorMatched(pod, selector)))
+                    .map(pod -> pod.getMetadata().getName())
+                    .filter(name -> Objects.nonNull(name) && name.contains(configuration.getPodLabel()))
+                    .collect(Collectors.toList());
+        }
+
+        FilterWatchListDeletable<Pod, PodList> pods = ocClient.getOsClient().pods();
+        for (String selector : selectors) {
+            String[] label = selector.split("=", 2);
+            pods = label.length == 2
+                    ? pods.withLabel(label[0].trim(), label[1].trim())
+                    : pods.withLabel(label[0].trim());
+        }
+
+        List<String> podNames = new ArrayList<>();
+        String continueToken = null;
+        do {
+            PodList page = pods.list(new ListOptionsBuilder()
+                    .withLimit(POD_PAGE_SIZE)
+                    .withContinue(continueToken)
+                    .build());
+            page.getItems()
+                    .stream()
+                    .filter(pod -> Objects.nonNull(pod.getMetadata()))
+                    .map(pod -> pod.getMetadata().getName())
+                    .filter(name -> Objects.nonNull(name) && name.contains(configuration.getPodLabel()))
+                    .forEach(podNames::add);
+            continueToken = page.getMetadata() != null ? page.getMetadata().getContinue() : null;
+        } while (continueToken != null && !continueToken.isEmpty());
+
+        return podNames;
+    }
+
+    private static boolean isSelectorMatched(Pod pod, String selector) {
+        Map<String, String> labels = Objects.requireNonNullElse(pod.getMetadata().getLabels(), Map.of());
+        String[] label = selector.split("=", 2);
+        return label.length == 2
+                ? label[1].trim().equals(labels.get(label[0].trim()))
+                : labels.containsKey(label[0].trim());
+    }
+
+    private static List<Pod> getPodsWithLabel(OkdClient ocClient, String label) {
+        if (NamespaceInformerCache.isEnabled()) {
+            return NamespaceInformerCache.get(ocClient).getPods()
+                    .stream()
+                    .filter(pod -> pod.getMetadata().getLabels() != null)
+                    .filter(pod -> pod.getMetadata().getLabels().containsKey(label))
+                    .collect(Collectors.toList());
+        }
+        return ocClient.getOsClient().pods().withLabel(label).list().getItems();
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import platform.qa.entities.TaskResult;
+import platform.qa.exceptions.ConfigurationExceptions;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyUtilsTest {
+
+    @Test
+    public void checkFailedTaskDoesNotInterruptOthers() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        tasks.put("bpms", () -> "https://bpms.example.com");
+        tasks.put("excerpt", () -> {
+            throw new IllegalStateException("Route excerpt has not been found");
+        });
+        tasks.put("redis", () -> "http://localhost:26379/");
+
+        Map<String, TaskResult<String>> results = ConcurrencyUtils.invokeAll(tasks, 2);
+
+        assertThat(results).containsOnlyKeys("bpms", "excerpt", "redis");
+        assertThat(results.keySet()).containsExactly("bpms", "excerpt", "redis");
+        assertThat(results.get("bpms").getValue()).isEqualTo("https://bpms.example.com");
+        assertThat(results.get("redis").getValue()).isEqualTo("http://localhost:26379/");
+        assertThat(results.get("excerpt").isSuccessful()).isFalse();
+        assertThat(results.get("excerpt").getError()).hasMessage("Route excerpt has not been found");
+    }
+
+    @Test
+    public void checkFailedTasksAreThrownAfterAllTasksCompleted() {
+        AtomicInteger initialized = new AtomicInteger();
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 6; i++) {
+            String namespace = "registry-" + i;
+            tasks.put(namespace, () -> {
+                if (namespace.equals("registry-1") || namespace.equals("registry-4")) {
+                    throw new IllegalStateException("Route bpms has not been found in " + namespace);
+                }
+                initialized.incrementAndGet();
+                return namespace;
+            });
+        }
+
+        Map<String, TaskResult<String>> results = ConcurrencyUtils.invokeAll(tasks, 2);
+
+        assertThat(initialized).hasValue(4);
+        assertThatThrownBy(() -> ConcurrencyUtils.requireSuccessful(results, "Namespaces"))
+                .isInstanceOf(ConfigurationExceptions.InitializationFailedException.class)
+                .hasMessageContaining("registry-1 - Route bpms has not been found in registry-1")
+                .hasMessageContaining("registry-4 - Route bpms has not been found in registry-4")
+                .satisfies(error -> assertThat(error.getSuppressed()).hasSize(2));
+        results.remove("registry-1");
+        results.remove("registry-4");
+        assertThat(ConcurrencyUtils.requireSuccessful(results, "Namespaces"))
+                .containsOnlyKeys("registry-0", "registry-2", "registry-3", "registry-5");
+    }
+
+    @Test
+    public void checkEmptyTasks() {
+        assertThat(ConcurrencyUtils.invokeAll(Map.<String, Callable<String>>of(), 4)).isEmpty();
+    }
+
+    @Test
+    public void checkAwaitRethrowsCause() {
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            throw new IllegalArgumentException("Token is rejected");
+        });
+
+        assertThatThrownBy(() -> ConcurrencyUtils.await(future))
+                .isExactlyInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Token is rejected");
+        assertThat(ConcurrencyUtils.await(CompletableFuture.completedFuture("token"))).isEqualTo("token");
+    }
+}
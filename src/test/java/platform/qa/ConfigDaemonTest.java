@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.daemon.ConfigDaemon;
+import platform.qa.daemon.ConfigDaemonClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class ConfigDaemonTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Path directory;
+    private Path daemonFile;
+    private ConfigDaemon daemon;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("daemon");
+        daemonFile = directory.resolve("daemon.json");
+        System.setProperty("configDaemonFile", daemonFile.toString());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (daemon != null) {
+            daemon.stop();
+        }
+        System.clearProperty("configDaemonFile");
+        Files.deleteIfExists(daemonFile);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void checkRequestWithoutValidKeyIsRejected() throws Exception {
+        daemon = ConfigDaemon.start(null);
+
+        assertThat(send("/ping", null).statusCode()).isEqualTo(401);
+        assertThat(send("/ping", "invalid").statusCode()).isEqualTo(401);
+        assertThat(send("/ping", readDaemonFile().get("key").asText()).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    public void checkGettersThatAreNotListedAreNotServed() throws Exception {
+        daemon = ConfigDaemon.start(null);
+        String key = readDaemonFile().get("key").asText();
+
+        assertThat(send("/central/getOcService", key).statusCode()).isEqualTo(404);
+        assertThat(send("/central/getKeycloak", key).statusCode()).isEqualTo(404);
+        assertThat(send("/central/getPlatformUserProvider", key).statusCode()).isEqualTo(404);
+        assertThat(send("/registry/default/getOcClient", key).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void checkRunningDaemonIsDetected() throws Exception {
+        daemon = ConfigDaemon.start(null);
+        assertThat(ConfigDaemonClient.isRunning()).isTrue();
+
+        daemon.stop();
+        daemon = null;
+
+        assertThat(ConfigDaemonClient.isRunning()).isFalse();
+        assertThat(daemonFile).doesNotExist();
+    }
+
+    @Test
+    public void checkFileOfKilledDaemonIsDeleted() throws IOException {
+        Files.writeString(daemonFile,
+                MAPPER.writeValueAsString(Map.of("port", 1, "key", "key", "pid", Long.MAX_VALUE)));
+
+        assertThat(ConfigDaemonClient.isRunning()).isFalse();
+        assertThat(daemonFile).doesNotExist();
+    }
+
+    @Test
+    public void checkDaemonThatDoesNotAnswerWithKeyIsNotRunning() throws Exception {
+        daemon = ConfigDaemon.start(null);
+        JsonNode file = readDaemonFile();
+        Files.writeString(daemonFile, MAPPER.writeValueAsString(Map.of("port", file.get("port").asInt(),
+                "key", "invalid", "pid", file.get("pid").asLong())));
+
+        assertThat(ConfigDaemonClient.isRunning()).isFalse();
+    }
+
+    private JsonNode readDaemonFile() throws IOException {
+        return MAPPER.readTree(daemonFile.toFile());
+    }
+
+    private HttpResponse<String> send(String path, String key) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + readDaemonFile().get("port").asInt() + path));
+        if (key != null) {
+            request.header("X-Config-Key", key);
+        }
+        return HttpClient.newHttpClient().send(request.GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import platform.qa.metrics.Metrics;
+import platform.qa.services.PortForwardManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void checkCallsAreRecordedAsEvents() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            Metrics.time(Metrics.SECRET, "registry", "keycloak", () -> "secret");
+            Metrics.time(Metrics.CREATE_USER, "registry", "officer", () -> "user");
+        });
+
+        assertThat(events).hasSize(1);
+        RecordedEvent secret = events.get(0);
+        assertThat(secret.getEventType().getName()).isEqualTo("platform.qa.SecretRead");
+        assertThat(secret.getString("namespace")).isEqualTo("registry");
+        assertThat(secret.getString("service")).isEqualTo("keycloak");
+        assertThat(secret.getBoolean("cacheHit")).isFalse();
+        assertThat(secret.getBoolean("failed")).isFalse();
+    }
+
+    @Test
+    public void checkReusedPortForwardIsRecordedAsCacheHit() throws IOException {
+        try (StubOpenshiftApi openshift = new StubOpenshiftApi()) {
+            StubOkdClient ocClient = new StubOkdClient(openshift.getService("admin"), "registry", "redis-1");
+
+            List<RecordedEvent> events = record(() -> {
+                PortForwardManager.forward(ocClient, "app=redis", 6379, ocClient::getFirstPod);
+                PortForwardManager.forward(ocClient, "app=redis", 6379, ocClient::getFirstPod);
+            });
+
+            assertThat(events).allSatisfy(event -> {
+                assertThat(event.getEventType().getName()).isEqualTo("platform.qa.PortForwardOpened");
+                assertThat(event.getString("namespace")).isEqualTo("registry");
+                assertThat(event.getString("service")).isEqualTo("app=redis");
+            });
+            assertThat(events).extracting(event -> event.getBoolean("cacheHit")).containsExactly(false, true);
+        } finally {
+            PortForwardManager.closeAll();
+        }
+    }
+
+    //only events of calling thread are provided, so background calls of other tests are not counted
+    private static List<RecordedEvent> record(Runnable calls) throws IOException {
+        Path file = Files.createTempFile("config", ".jfr");
+        try (Recording recording = new Recording()) {
+            List.of("platform.qa.ServiceResolved", "platform.qa.PortForwardOpened", "platform.qa.TokenRefreshed",
+                    "platform.qa.SecretRead").forEach(event -> recording.enable(event).withThreshold(Duration.ZERO));
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("platform.qa."))
+                    .filter(event -> event.getThread() != null
+                            && event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import platform.qa.utils.JwtUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class JwtUtilsTest {
+
+    @Test
+    public void checkExpirationTimeFromExpClaim() {
+        assertThat(JwtUtils.getExpirationTime(jwt("{\"exp\":1700000000,\"preferred_username\":\"officer\"}")))
+                .isEqualTo(1_700_000_000_000L);
+    }
+
+    @Test
+    public void checkTokenWithoutExpClaim() {
+        assertThat(JwtUtils.getExpirationTime(jwt("{\"preferred_username\":\"officer\"}"))).isZero();
+        assertThat(JwtUtils.getExpirationTime(jwt("{\"exp\":\"never\"}"))).isZero();
+    }
+
+    @Test
+    public void checkNotJwtToken() {
+        assertThat(JwtUtils.getExpirationTime(null)).isZero();
+        assertThat(JwtUtils.getExpirationTime("opaque-token")).isZero();
+        assertThat(JwtUtils.getExpirationTime("header.%%%.signature")).isZero();
+        assertThat(JwtUtils.getExpirationTime("header." + encode("not json") + ".signature")).isZero();
+    }
+
+    static String jwt(String claims) {
+        return encode("{\"alg\":\"none\"}") + "." + encode(claims) + ".signature";
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.entities.User;
+import platform.qa.exceptions.KeycloakExceptions;
+import platform.qa.services.KeycloakTokenService;
+
+import java.io.IOException;
+
+public class KeycloakTokenServiceTest {
+    private StubTokenEndpoint keycloak;
+
+    @AfterEach
+    public void tearDown() {
+        keycloak.close();
+    }
+
+    @Test
+    public void checkTokenIsRenewedWithRefreshToken() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 0);
+        KeycloakTokenService tokenService = new KeycloakTokenService(keycloak.getUrl());
+
+        assertThat(tokenService.getAccessToken(createUser())).isNotNull();
+        assertThat(tokenService.getAccessToken(createUser())).isNotNull();
+
+        assertThat(keycloak.getPasswordGrants()).isEqualTo(1);
+        assertThat(keycloak.getRefreshGrants()).isEqualTo(1);
+    }
+
+    @Test
+    public void checkRejectedRefreshTokenFallsBackToPasswordGrant() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 0);
+        KeycloakTokenService tokenService = new KeycloakTokenService(keycloak.getUrl());
+        tokenService.getAccessToken(createUser());
+
+        keycloak.respondWith(400, "{\"error\":\"invalid_grant\",\"error_description\":\"Session not active\"}");
+        assertThat(tokenService.getAccessToken(createUser())).isNotNull();
+
+        assertThat(keycloak.getPasswordGrants()).isEqualTo(2);
+        assertThat(keycloak.getRefreshGrants()).isEqualTo(1);
+    }
+
+    @Test
+    public void checkTransientErrorsAreRetried() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 0);
+        KeycloakTokenService tokenService = new KeycloakTokenService(keycloak.getUrl());
+        keycloak.respondWith(503, "Service Unavailable");
+        keycloak.respondWith(429, "{\"error\":\"too_many_requests\"}");
+
+        assertThat(tokenService.getAccessToken(createUser())).isNotNull();
+        assertThat(keycloak.getPasswordGrants()).isEqualTo(3);
+    }
+
+    @Test
+    public void checkWrongPasswordDoesNotDisableDirectGrant() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 0);
+        KeycloakTokenService tokenService = new KeycloakTokenService(keycloak.getUrl());
+        keycloak.respondWith(401, "{\"error\":\"invalid_grant\",\"error_description\":\"Invalid user credentials\"}");
+
+        assertThatThrownBy(() -> tokenService.getAccessToken(createUser()))
+                .isInstanceOf(KeycloakExceptions.TokenGrantException.class)
+                .hasMessageContaining("invalid_grant");
+        assertThat(tokenService.getAccessToken(createUser())).isNotNull();
+        assertThat(keycloak.getPasswordGrants()).isEqualTo(2);
+    }
+
+    @Test
+    public void checkRefusedClientIsRemembered() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 0);
+        KeycloakTokenService tokenService = new KeycloakTokenService(keycloak.getUrl());
+        keycloak.respondWith(400, "{\"error\":\"unauthorized_client\","
+                + "\"error_description\":\"Client not allowed for direct access grants\"}");
+
+        assertThat(tokenService.getAccessToken(createUser())).isNull();
+        assertThat(tokenService.getAccessToken(createUser())).isNull();
+        assertThat(keycloak.getPasswordGrants()).isEqualTo(1);
+    }
+
+    private static User createUser() {
+        User user = new User("officer", "officer");
+        user.setRealm("test-officer-portal");
+        user.setClientId("officer-portal");
+        return user;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import platform.qa.cache.Memoizer;
+import platform.qa.entities.TaskResult;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MemoizerTest {
+    private final Memoizer memoizer = new Memoizer();
+    private final AtomicInteger resolutions = new AtomicInteger();
+
+    @Test
+    public void checkConcurrentCallsResolveOnce() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, Callable<Integer>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.put("task-" + i, () -> memoizer.get("bpms", () -> {
+                await(release);
+                return resolutions.incrementAndGet();
+            }));
+        }
+
+        Thread releaser = new Thread(() -> {
+            sleep(200);
+            release.countDown();
+        });
+        releaser.start();
+        Map<String, TaskResult<Integer>> results = ConcurrencyUtils.invokeAll(tasks, tasks.size());
+        releaser.join();
+
+        assertThat(resolutions).hasValue(1);
+        assertThat(results.values()).allSatisfy(result -> assertThat(result.getValue()).isEqualTo(1));
+    }
+
+    @Test
+    public void checkFailedResolutionIsRetried() {
+        assertThatThrownBy(() -> memoizer.get("bpms", () -> {
+            resolutions.incrementAndGet();
+            throw new IllegalStateException("Route is not found");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(memoizer.contains("bpms")).isFalse();
+        assertThat(memoizer.<Integer>get("bpms", resolutions::incrementAndGet)).isEqualTo(2);
+        assertThat(memoizer.<Integer>get("bpms", resolutions::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    public void checkInvalidValueIsResolvedAgain() {
+        assertThat(memoizer.get("routes", resolutions::incrementAndGet, value -> value > 1)).isEqualTo(1);
+        assertThat(memoizer.get("routes", resolutions::incrementAndGet, value -> value > 1)).isEqualTo(2);
+        assertThat(memoizer.get("routes", resolutions::incrementAndGet, value -> value > 1)).isEqualTo(2);
+    }
+
+    @Test
+    public void checkValueIsResolvedAgainWhenDependencyIsInvalid() {
+        AtomicBoolean forwardAlive = new AtomicBoolean(true);
+        Memoizer services = new Memoizer();
+
+        assertThat(getWithForward(services, forwardAlive)).isEqualTo(1);
+        assertThat(getWithForward(services, forwardAlive)).isEqualTo(1);
+
+        forwardAlive.set(false);
+        assertThat(getWithForward(services, forwardAlive)).isEqualTo(2);
+    }
+
+    @Test
+    public void checkDependencyOfNestedValueIsInherited() {
+        AtomicBoolean forwardAlive = new AtomicBoolean(true);
+        Memoizer services = new Memoizer();
+        getWithForward(services, forwardAlive);
+
+        assertThat(memoizer.<Integer>get("service-view", () -> getWithForward(services, forwardAlive) * 10))
+                .isEqualTo(10);
+
+        forwardAlive.set(false);
+        assertThat(memoizer.<Integer>get("service-view", () -> getWithForward(services, forwardAlive) * 10))
+                .isEqualTo(20);
+    }
+
+    private int getWithForward(Memoizer services, AtomicBoolean forwardAlive) {
+        return services.get("redis", () -> {
+            Memoizer.dependOn(forwardAlive::get);
+            return resolutions.incrementAndGet();
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
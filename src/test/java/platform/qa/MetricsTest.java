@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.metrics.MetricSnapshot;
+import platform.qa.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+public class MetricsTest {
+
+    @BeforeEach
+    public void setUp() {
+        Metrics.reset();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.reset();
+    }
+
+    @Test
+    public void checkCallsAreRecordedByOperationNamespaceAndKey() {
+        assertThat(Metrics.time(Metrics.SECRET, "registry", "keycloak", () -> "secret")).isEqualTo("secret");
+        Metrics.time(Metrics.SECRET, "registry", "keycloak", () -> "secret");
+        Metrics.time(Metrics.SECRET, "registry", "citus-secret", () -> "secret");
+        Metrics.time(Metrics.ROUTE, "registry", "keycloak", () -> "route");
+
+        assertThat(Metrics.getSnapshot()).hasSize(3);
+        MetricSnapshot keycloak = find(Metrics.SECRET, "registry", "keycloak").orElseThrow();
+        assertThat(keycloak.getCount()).isEqualTo(2);
+        assertThat(keycloak.getErrors()).isZero();
+        assertThat(keycloak.getMaxMillis()).isLessThanOrEqualTo(keycloak.getTotalMillis());
+    }
+
+    @Test
+    public void checkFailedCallIsRecordedAsErrorAndRethrown() {
+        assertThatThrownBy(() -> Metrics.time(Metrics.TOKEN_GRANT, "registry-officer-portal", "officer", () -> {
+            throw new IllegalStateException("keycloak is not available");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("keycloak is not available");
+
+        MetricSnapshot grant = find(Metrics.TOKEN_GRANT, "registry-officer-portal", "officer").orElseThrow();
+        assertThat(grant.getCount()).isEqualTo(1);
+        assertThat(grant.getErrors()).isEqualTo(1);
+    }
+
+    @Test
+    public void checkSnapshotIsSortedBySlowestCalls() {
+        Metrics.record(Metrics.SECRET, "registry", "fast", 1_000_000, false);
+        Metrics.record(Metrics.SECRET, "registry", "slow", 50_000_000, false);
+        Metrics.record(Metrics.ROUTE, null, null, 10_000_000, false);
+
+        List<MetricSnapshot> snapshot = Metrics.getSnapshot();
+
+        assertThat(snapshot).extracting(MetricSnapshot::getKey).containsExactly("slow", "-", "fast");
+        assertThat(snapshot.get(1).getNamespace()).isEqualTo("-");
+        assertThat(snapshot.get(0).getMeanMillis()).isEqualTo(50.0);
+    }
+
+    @Test
+    public void checkSummaryContainsTotalsPerOperation() {
+        Metrics.record(Metrics.SECRET, "registry", "keycloak", 2_000_000, false);
+        Metrics.record(Metrics.SECRET, "registry", "citus-secret", 3_000_000, true);
+        Metrics.record(Metrics.ROUTE, "registry", "bpms", 1_000_000, false);
+
+        String summary = Metrics.getSummary();
+
+        assertThat(summary).contains(String.format("  %-15s calls=%-6d errors=%-4d total=%.1f ms", "secret", 2, 1,
+                5.0));
+        assertThat(summary).contains(String.format("  %-15s calls=%-6d errors=%-4d total=%.1f ms", "route", 1, 0,
+                1.0));
+        assertThat(summary.indexOf("citus-secret")).isLessThan(summary.indexOf("bpms"));
+    }
+
+    @Test
+    public void checkNamespaceOfClientIsTag() throws IOException {
+        try (StubOpenshiftApi openshift = new StubOpenshiftApi()) {
+            StubOkdClient ocClient = new StubOkdClient(openshift.getService("admin"), "registry");
+
+            assertThat(Metrics.namespaceOf(ocClient)).isEqualTo("registry");
+        }
+    }
+
+    private static Optional<MetricSnapshot> find(String operation, String namespace, String key) {
+        return Metrics.getSnapshot().stream()
+                .filter(metric -> metric.getOperation().equals(operation))
+                .filter(metric -> metric.getNamespace().equals(namespace))
+                .filter(metric -> metric.getKey().equals(key))
+                .findFirst();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.entities.Service;
+import platform.qa.entities.TaskResult;
+import platform.qa.oc.OkdClient;
+import platform.qa.utils.ConcurrencyUtils;
+import platform.qa.utils.OkdClientPool;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+public class OkdClientPoolTest {
+    private StubOpenshiftApi openshift;
+    private Service ocService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        openshift = new StubOpenshiftApi();
+        ocService = openshift.getService("admin");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        OkdClientPool.closeAll();
+        openshift.close();
+    }
+
+    @Test
+    public void checkClientIsSharedByClusterUserAndNamespace() {
+        OkdClient first = OkdClientPool.acquire(ocService, "registry");
+        OkdClient second = OkdClientPool.acquire(ocService, "registry");
+
+        assertThat(second).isSameAs(first);
+        assertThat(OkdClientPool.acquire(ocService, "user-management")).isNotSameAs(first);
+        assertThat(OkdClientPool.acquire(openshift.getService("officer"), "registry")).isNotSameAs(first);
+    }
+
+    @Test
+    public void checkConcurrentAcquiresCreateOneClient() {
+        Map<String, Callable<OkdClient>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.put("acquire-" + i, () -> OkdClientPool.acquire(ocService, "registry"));
+        }
+
+        Map<String, TaskResult<OkdClient>> results = ConcurrencyUtils.invokeAll(tasks, tasks.size());
+
+        OkdClient client = results.get("acquire-0").getValue();
+        assertThat(client).isNotNull();
+        assertThat(results.values()).allSatisfy(result -> assertThat(result.getValue()).isSameAs(client));
+    }
+
+    @Test
+    public void checkReleasedClientIsClosedWhenIdle() {
+        OkdClient client = OkdClientPool.acquire(ocService, "registry");
+        OkdClientPool.release(client);
+
+        OkdClientPool.closeIdle();
+
+        assertThat(OkdClientPool.acquire(ocService, "registry")).isNotSameAs(client);
+    }
+
+    @Test
+    public void checkReferencedClientIsNotClosed() {
+        OkdClient client = OkdClientPool.acquire(ocService, "registry");
+        OkdClient released = OkdClientPool.acquire(ocService, "registry");
+        OkdClientPool.release(released);
+
+        OkdClientPool.closeIdle();
+
+        assertThat(OkdClientPool.acquire(ocService, "registry")).isSameAs(client);
+    }
+
+    @Test
+    public void checkExecuteReleasesClient() {
+        OkdClient client = OkdClientPool.execute(ocService, "registry", Function.identity());
+
+        assertThat(OkdClientPool.execute(ocService, "registry", Function.identity())).isSameAs(client);
+        OkdClientPool.closeIdle();
+        assertThat(OkdClientPool.acquire(ocService, "registry")).isNotSameAs(client);
+    }
+}
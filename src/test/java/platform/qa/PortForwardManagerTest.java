@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.cache.Memoizer;
+import platform.qa.services.PortForwardManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PortForwardManagerTest {
+    private StubOpenshiftApi openshift;
+    private StubOkdClient ocClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        openshift = new StubOpenshiftApi();
+        ocClient = new StubOkdClient(openshift.getService("admin"), "registry", "redis-1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        PortForwardManager.closeAll();
+        openshift.close();
+    }
+
+    @Test
+    public void checkLiveForwardIsReused() {
+        AtomicInteger resolutions = new AtomicInteger();
+
+        int first = forward(resolutions);
+        int second = forward(resolutions);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(resolutions).hasValue(1);
+        assertThat(ocClient.getForwards()).hasSize(1);
+    }
+
+    @Test
+    public void checkDeadForwardIsForwardedAgainAndClosedOnce() throws Exception {
+        forward(new AtomicInteger());
+        StubOkdClient.StubForward dead = ocClient.getForwards().get(0);
+        dead.die();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> calls = IntStream.range(0, 8)
+                    .mapToObj(i -> (Callable<Integer>) () -> forward(new AtomicInteger()))
+                    .collect(Collectors.toList());
+            Set<Integer> ports = ConcurrentHashMap.newKeySet();
+            for (Future<Integer> port : executor.invokeAll(calls)) {
+                ports.add(port.get());
+            }
+
+            assertThat(ocClient.getForwards()).hasSize(2);
+            assertThat(ports).containsExactly(ocClient.getForwards().get(1).getLocalPort());
+            assertThat(dead.getCloses()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void checkForwardToRemovedPodIsClosedAndForwardedToNewPod() {
+        forward(new AtomicInteger());
+        StubOkdClient.StubForward removed = ocClient.getForwards().get(0);
+
+        PortForwardManager.closeRemoved();
+        assertThat(removed.getCloses()).isZero();
+
+        ocClient.replacePod("redis-1", "redis-2");
+        PortForwardManager.closeRemoved();
+        int port = forward(new AtomicInteger());
+
+        assertThat(removed.getCloses()).isEqualTo(1);
+        assertThat(ocClient.getForwards()).hasSize(2);
+        assertThat(ocClient.getForwards().get(1).getPodName()).isEqualTo("redis-2");
+        assertThat(port).isEqualTo(ocClient.getForwards().get(1).getLocalPort());
+    }
+
+    @Test
+    public void checkMemoizedValueUsesPortOfReplacedForward() {
+        Memoizer memoizer = new Memoizer();
+        AtomicInteger resolutions = new AtomicInteger();
+
+        String first = memoizer.get("url", () -> "redis://localhost:" + forward(resolutions));
+        assertThat(memoizer.get("url", () -> "redis://localhost:" + forward(resolutions))).isEqualTo(first);
+
+        ocClient.getForwards().get(0).die();
+        String second = memoizer.get("url", () -> "redis://localhost:" + forward(resolutions));
+
+        assertThat(second).isEqualTo("redis://localhost:" + ocClient.getForwards().get(1).getLocalPort());
+        assertThat(resolutions).hasValue(2);
+    }
+
+    @Test
+    public void checkIdleForwardIsClosed() {
+        int first = forward(new AtomicInteger());
+
+        PortForwardManager.closeIdle(0);
+        int second = forward(new AtomicInteger());
+
+        assertThat(ocClient.getForwards().get(0).getCloses()).isEqualTo(1);
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    private int forward(AtomicInteger resolutions) {
+        return PortForwardManager.forward(ocClient, "app=redis", 6379, () -> {
+            resolutions.incrementAndGet();
+            return ocClient.getFirstPod();
+        });
+    }
+}
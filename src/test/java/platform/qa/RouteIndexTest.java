@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import platform.qa.cache.RouteIndex;
+
+import java.util.Map;
+
+public class RouteIndexTest {
+    private final RouteIndex index = new RouteIndex(Map.of(
+            "bpms", "https://bpms.example.com",
+            "bpms-admin", "https://bpms-admin.example.com",
+            "user-settings", "https://user-settings.example.com",
+            "aaaa", "https://aaaa.example.com"
+    ));
+
+    @Test
+    public void checkUniqueSubstringMatch() {
+        assertThat(index.find("settings")).isEqualTo("https://user-settings.example.com");
+        assertThat(index.find("admin")).isEqualTo("https://bpms-admin.example.com");
+        assertThat(index.find("aaa")).isEqualTo("https://aaaa.example.com");
+    }
+
+    @Test
+    public void checkExactMatchWhenSeveralRoutesContainName() {
+        assertThat(index.find("bpms")).isEqualTo("https://bpms.example.com");
+        assertThat(index.find("bp")).isNull();
+    }
+
+    @Test
+    public void checkMissingRoute() {
+        assertThat(index.find("excerpt")).isNull();
+    }
+}
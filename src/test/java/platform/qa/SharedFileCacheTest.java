@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.cache.SharedFileCache;
+import platform.qa.entities.TaskResult;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedFileCacheTest {
+    private static final long LIFETIME = TimeUnit.MINUTES.toMillis(5);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private Path directory;
+
+    @BeforeEach
+    public void useTemporaryDirectory() throws IOException {
+        directory = Files.createTempDirectory("shared-cache");
+        System.setProperty("sharedCacheDir", directory.toString());
+    }
+
+    @AfterEach
+    public void deleteTemporaryDirectory() throws IOException {
+        System.clearProperty("sharedCacheDir");
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void checkValueIsLoadedOnceUntilExpired() {
+        assertThat(SharedFileCache.get("token", () -> load("first", LIFETIME))).isEqualTo("first");
+        assertThat(SharedFileCache.get("token", () -> load("second", LIFETIME))).isEqualTo("first");
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void checkExpiredValueIsLoadedAgain() {
+        assertThat(SharedFileCache.get("token", () -> load("first", -1))).isEqualTo("first");
+        assertThat(SharedFileCache.get("token", () -> load("second", LIFETIME))).isEqualTo("second");
+        assertThat(SharedFileCache.get("token", () -> load("third", LIFETIME))).isEqualTo("second");
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void checkInvalidatedValueIsLoadedAgain() {
+        SharedFileCache.get("token", () -> load("first", LIFETIME));
+        SharedFileCache.invalidate("token");
+
+        assertThat(SharedFileCache.get("token", () -> load("second", LIFETIME))).isEqualTo("second");
+        assertThat(SharedFileCache.get("other", () -> load("other", LIFETIME))).isEqualTo("other");
+    }
+
+    @Test
+    public void checkNullValueIsNotStored() {
+        assertThat(SharedFileCache.get("token", () -> load(null, LIFETIME))).isNull();
+        assertThat(SharedFileCache.get("token", () -> load("first", LIFETIME))).isEqualTo("first");
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void checkConcurrentCallsWaitForLockedKey() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.put("task-" + i, () -> SharedFileCache.get("token", () -> {
+                sleep(100);
+                return load("token-" + loads.get(), LIFETIME);
+            }));
+        }
+
+        Map<String, TaskResult<String>> results = ConcurrencyUtils.invokeAll(tasks, tasks.size());
+
+        assertThat(loads).hasValue(1);
+        assertThat(results.values()).allSatisfy(result -> assertThat(result.getValue()).isEqualTo("token-0"));
+    }
+
+    private SharedFileCache.Entry load(String value, long lifetimeMillis) {
+        loads.incrementAndGet();
+        return new SharedFileCache.Entry(value, System.currentTimeMillis() + lifetimeMillis);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.LocalPortForward;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.openshift.client.OpenShiftClient;
+import platform.qa.entities.Service;
+import platform.qa.oc.OkdClient;
+
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link OkdClient} with in-memory pods of one namespace, port forwards to them are recorded instead of opened
+ */
+class StubOkdClient extends OkdClient {
+    private static final AtomicInteger LOCAL_PORTS = new AtomicInteger(40000);
+
+    private final String url;
+    private final String namespace;
+    private final Set<String> pods = ConcurrentHashMap.newKeySet();
+    private final List<StubForward> forwards = new CopyOnWriteArrayList<>();
+    private final OpenShiftClient osClient;
+
+    StubOkdClient(Service ocService, String namespace, String... pods) {
+        super(ocService, namespace);
+        this.url = ocService.getUrl();
+        this.namespace = namespace;
+        this.pods.addAll(List.of(pods));
+        osClient = proxy(OpenShiftClient.class, (method, args) -> {
+            switch (method) {
+                case "getMasterUrl":
+                    return new URL(url);
+                case "getNamespace":
+                    return this.namespace;
+                case "pods":
+                    return proxy(MixedOperation.class, (podsMethod, podsArgs) -> {
+                        if (podsMethod.equals("withName")) {
+                            return getPod((String) podsArgs[0]);
+                        }
+                        throw new UnsupportedOperationException(podsMethod);
+                    });
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    @Override
+    public OpenShiftClient getOsClient() {
+        return osClient;
+    }
+
+    String getFirstPod() {
+        return new TreeSet<>(pods).first();
+    }
+
+    void replacePod(String removed, String created) {
+        pods.remove(removed);
+        pods.add(created);
+    }
+
+    List<StubForward> getForwards() {
+        return forwards;
+    }
+
+    private PodResource<?> getPod(String name) {
+        return proxy(PodResource.class, (method, args) -> {
+            switch (method) {
+                case "get":
+                    return pods.contains(name)
+                            ? new PodBuilder().withNewMetadata().withName(name).endMetadata().build()
+                            : null;
+                case "portForward":
+                    StubForward forward = new StubForward(name, LOCAL_PORTS.incrementAndGet());
+                    forwards.add(forward);
+                    return forward;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, StubMethod method) {
+        return (T) Proxy.newProxyInstance(StubOkdClient.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, invoked, args) -> invoked.getDeclaringClass() == Object.class
+                        ? invoked.invoke(method, args)
+                        : method.invoke(invoked.getName(), args));
+    }
+
+    @FunctionalInterface
+    private interface StubMethod {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    static final class StubForward implements LocalPortForward {
+        private final String podName;
+        private final int localPort;
+        private final AtomicInteger closes = new AtomicInteger();
+        private volatile boolean alive = true;
+
+        private StubForward(String podName, int localPort) {
+            this.podName = podName;
+            this.localPort = localPort;
+        }
+
+        String getPodName() {
+            return podName;
+        }
+
+        int getCloses() {
+            return closes.get();
+        }
+
+        void die() {
+            alive = false;
+        }
+
+        @Override
+        public InetAddress getLocalAddress() {
+            return InetAddress.getLoopbackAddress();
+        }
+
+        @Override
+        public int getLocalPort() {
+            return localPort;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+
+        @Override
+        public boolean errorOccurred() {
+            return false;
+        }
+
+        @Override
+        public Collection<Throwable> getClientThrowables() {
+            return List.of();
+        }
+
+        @Override
+        public Collection<Throwable> getServerThrowables() {
+            return List.of();
+        }
+
+        @Override
+        public void close() {
+            closes.incrementAndGet();
+            alive = false;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in of keycloak token endpoint that issues unsigned JWT tokens with configured lifetime, counts grants
+ * and remembers issued access tokens.
+ * Responses queued by {@link #respondWith(int, String)} are returned before issued tokens.
+ */
+class StubTokenEndpoint implements Closeable {
+    private final HttpServer server;
+    private final long tokenLifetimeSeconds;
+    private final long latencyMillis;
+    private final AtomicLong passwordGrants = new AtomicLong();
+    private final AtomicLong refreshGrants = new AtomicLong();
+    private final AtomicLong tokenIds = new AtomicLong();
+    private final Queue<String[]> responses = new ConcurrentLinkedQueue<>();
+    private final Queue<String> accessTokens = new ConcurrentLinkedQueue<>();
+
+    StubTokenEndpoint(long tokenLifetimeSeconds, long latencyMillis) throws IOException {
+        this.tokenLifetimeSeconds = tokenLifetimeSeconds;
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    long getPasswordGrants() {
+        return passwordGrants.get();
+    }
+
+    long getRefreshGrants() {
+        return refreshGrants.get();
+    }
+
+    List<String> getAccessTokens() {
+        return new ArrayList<>(accessTokens);
+    }
+
+    void respondWith(int status, String body) {
+        responses.add(new String[] {String.valueOf(status), body});
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            (form.contains("grant_type=refresh_token") ? refreshGrants : passwordGrants).incrementAndGet();
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+
+            String[] response = responses.poll();
+            if (response != null) {
+                respond(exchange, Integer.parseInt(response[0]), response[1]);
+                return;
+            }
+            String accessToken = createToken(tokenLifetimeSeconds);
+            accessTokens.add(accessToken);
+            respond(exchange, 200, String.format("{\"access_token\":\"%s\",\"refresh_token\":\"%s\","
+                            + "\"expires_in\":%d,\"refresh_expires_in\":%d}",
+                    accessToken, createToken(tokenLifetimeSeconds * 10),
+                    tokenLifetimeSeconds, tokenLifetimeSeconds * 10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String createToken(long lifetimeSeconds) {
+        long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + lifetimeSeconds;
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"exp\":" + exp + ",\"jti\":\"" + tokenIds.incrementAndGet() + "\"}")
+                .getBytes(StandardCharsets.UTF_8)) + ".";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
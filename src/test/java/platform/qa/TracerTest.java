@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import platform.qa.metrics.Metrics;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TracerTest {
+
+    //tracer is enabled at class loading, so traced calls are made by separate JVM that writes trace at exit
+    @Test
+    public void checkNestedCallsAreWrittenAtExit() throws Exception {
+        Path directory = Files.createTempDirectory("trace");
+        Path traceFile = directory.resolve("trace.json");
+        try {
+            Process process = new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    "-DtraceFile=" + traceFile,
+                    TracedCalls.class.getName())
+                    .inheritIO()
+                    .start();
+            assertThat(process.waitFor(1, TimeUnit.MINUTES)).isTrue();
+            assertThat(process.exitValue()).isZero();
+
+            JsonNode events = new ObjectMapper().readTree(traceFile.toFile()).get("traceEvents");
+            List<JsonNode> spans = new ArrayList<>();
+            events.forEach(event -> {
+                if ("X".equals(event.get("ph").asText())) {
+                    spans.add(event);
+                }
+            });
+
+            assertThat(events).anySatisfy(event -> {
+                assertThat(event.get("ph").asText()).isEqualTo("M");
+                assertThat(event.get("args").get("name").asText()).isEqualTo("main");
+            });
+            assertThat(spans).extracting(span -> span.get("name").asText())
+                    .containsExactlyInAnyOrder("route bpms", "secret keycloak", "tokenGrant officer");
+
+            JsonNode route = find(spans, "route");
+            JsonNode secret = find(spans, "secret");
+            assertThat(secret.get("ts").asDouble()).isGreaterThanOrEqualTo(route.get("ts").asDouble());
+            assertThat(secret.get("ts").asDouble() + secret.get("dur").asDouble())
+                    .isLessThanOrEqualTo(route.get("ts").asDouble() + route.get("dur").asDouble());
+            assertThat(secret.get("args").get("namespace").asText()).isEqualTo("registry");
+            assertThat(find(spans, "tokenGrant").get("args").get("failed").asBoolean()).isTrue();
+        } finally {
+            Files.deleteIfExists(traceFile);
+            Files.delete(directory);
+        }
+    }
+
+    private static JsonNode find(List<JsonNode> spans, String operation) {
+        return spans.stream()
+                .filter(span -> span.get("cat").asText().equals(operation))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    static final class TracedCalls {
+
+        public static void main(String[] args) {
+            Metrics.time(Metrics.ROUTE, "registry", "bpms",
+                    () -> Metrics.time(Metrics.SECRET, "registry", "keycloak", () -> "secret"));
+            try {
+                Metrics.time(Metrics.TOKEN_GRANT, "registry-officer-portal", "officer", () -> {
+                    throw new IllegalStateException("keycloak is not available");
+                });
+            } catch (IllegalStateException e) {
+                //failed span is recorded as well
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.cache.UserProvisioningState;
+import platform.qa.entities.TaskResult;
+import platform.qa.entities.User;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+public class UserProvisioningStateTest {
+    private static final String SCOPE = "https://keycloak.example.com|registry";
+
+    private Path directory;
+    private Path stateFile;
+
+    @BeforeEach
+    public void enableState() throws IOException {
+        directory = Files.createTempDirectory("provisioning");
+        stateFile = directory.resolve("users.state");
+        System.setProperty("differentialProvisioning", "true");
+        System.setProperty("userProvisioningStateFile", stateFile.toString());
+    }
+
+    @AfterEach
+    public void disableState() throws IOException {
+        System.clearProperty("differentialProvisioning");
+        System.clearProperty("userProvisioningStateFile");
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void checkTokenIsNotPartOfFingerprint() {
+        User user = user("officer");
+        UserProvisioningState.markProvisioned(SCOPE, user);
+
+        user.setToken("token");
+        user.setTokenExpireTime(System.currentTimeMillis());
+
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, user)).isTrue();
+    }
+
+    @Test
+    public void checkForgottenUserIsNotProvisioned() {
+        User officer = user("officer");
+        User citizen = user("citizen");
+        UserProvisioningState.markProvisioned(SCOPE, officer);
+        UserProvisioningState.markProvisioned(SCOPE, citizen);
+
+        UserProvisioningState.forget(SCOPE, officer);
+
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, officer)).isFalse();
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, citizen)).isTrue();
+    }
+
+    @Test
+    public void checkChangedDefinitionIsNotProvisioned() {
+        User user = user("officer");
+        UserProvisioningState.markProvisioned(SCOPE, user);
+
+        user.setRealmRoles(List.of("officer", "head-officer"));
+
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, user)).isFalse();
+    }
+
+    @Test
+    public void checkScopeChangesFingerprint() throws IOException {
+        String otherScope = "https://keycloak.other.com|registry";
+        User user = user("officer");
+        UserProvisioningState.markProvisioned(SCOPE, user);
+
+        //the same fingerprint under another scope must not be trusted
+        Properties state = read();
+        state.setProperty(otherScope + "|registry-realm/officer", state.getProperty(SCOPE + "|registry-realm/officer"));
+        write(state);
+
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, user)).isTrue();
+        assertThat(UserProvisioningState.isProvisioned(otherScope, user)).isFalse();
+    }
+
+    @Test
+    public void checkStateOfOtherWriterIsMerged() throws IOException {
+        User officer = user("officer");
+        User citizen = user("citizen");
+        UserProvisioningState.markProvisioned(SCOPE, officer);
+
+        //another JVM remembers its user after this JVM has read the state
+        Properties state = read();
+        state.setProperty("https://keycloak.other.com|registry|registry-realm/auditor", "fingerprint;1");
+        write(state);
+        UserProvisioningState.markProvisioned(SCOPE, citizen);
+
+        assertThat(read()).containsKey("https://keycloak.other.com|registry|registry-realm/auditor");
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, officer)).isTrue();
+        assertThat(UserProvisioningState.isProvisioned(SCOPE, citizen)).isTrue();
+    }
+
+    @Test
+    public void checkConcurrentWritersAreMerged() throws IOException {
+        Map<String, Callable<User>> tasks = new LinkedHashMap<>();
+        for (int i = 0; i < 16; i++) {
+            User user = user("user-" + i);
+            tasks.put(user.getLogin(), () -> {
+                UserProvisioningState.markProvisioned(SCOPE, user);
+                return user;
+            });
+        }
+
+        Map<String, TaskResult<User>> results = ConcurrencyUtils.invokeAll(tasks, 8);
+
+        assertThat(read()).hasSize(16);
+        assertThat(results.values()).allSatisfy(result ->
+                assertThat(UserProvisioningState.isProvisioned(SCOPE, result.getValue())).isTrue());
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactlyInAnyOrder("users.state", "users.state.lock");
+        }
+    }
+
+    private static User user(String login) {
+        User user = new User(login, login);
+        user.setRealm("registry-realm");
+        user.setRealmRoles(List.of("officer"));
+        return user;
+    }
+
+    private Properties read() throws IOException {
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+            state.load(reader);
+        }
+        return state;
+    }
+
+    private void write(Properties state) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            state.store(writer, null);
+        }
+    }
+}
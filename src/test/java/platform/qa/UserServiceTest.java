@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package platform.qa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import platform.qa.cache.UserProvisioningState;
+import platform.qa.entities.Service;
+import platform.qa.entities.TaskResult;
+import platform.qa.entities.User;
+import platform.qa.keycloak.KeycloakClient;
+import platform.qa.services.KeycloakTokenService;
+import platform.qa.services.UserService;
+import platform.qa.utils.ConcurrencyUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserServiceTest {
+    private StubTokenEndpoint keycloak;
+
+    @BeforeEach
+    public void setUp() {
+        System.setProperty("tokenExpirySkew", "1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty("tokenExpirySkew");
+        if (keycloak != null) {
+            keycloak.close();
+        }
+    }
+
+    @Test
+    public void checkConcurrentRefreshesAreCoalesced() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 300);
+        User user = createUser("coalesced-officer");
+        UserService userService = createUserService(user);
+
+        Map<String, Callable<String>> refreshes = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            refreshes.put("refresh-" + i, () -> userService.copyWithValidToken(user).getToken());
+        }
+        long started = System.currentTimeMillis();
+        Map<String, TaskResult<String>> results = ConcurrencyUtils.invokeAll(refreshes, refreshes.size());
+
+        assertThat(keycloak.getPasswordGrants()).isEqualTo(1);
+        assertThat(keycloak.getAccessTokens()).hasSize(1);
+        String issued = keycloak.getAccessTokens().get(0);
+        assertThat(results.values()).allSatisfy(result -> assertThat(result.getValue()).isEqualTo(issued));
+        assertThat(user.getToken()).isEqualTo(issued);
+        assertThat(user.getTokenExpireTime()).isBetween(started, System.currentTimeMillis());
+    }
+
+    @Test
+    public void checkTokenIsRefreshedInBackgroundBeforeExpiration() throws IOException {
+        keycloak = new StubTokenEndpoint(4, 0);
+        User user = createUser("background-officer");
+        UserService userService = createUserService(user);
+
+        User view = userService.copyWithValidToken(userService.refreshUserToken(user));
+        String firstToken = view.getToken();
+        long coalesced = UserService.getTokenGrantStatistics().get("coalesced");
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> keycloak.getRefreshGrants() >= 2);
+
+        List<String> issued = keycloak.getAccessTokens();
+        assertThat(firstToken).isEqualTo(issued.get(0));
+        assertThat(user.getToken()).isIn(issued.subList(1, issued.size()));
+        assertThat(view.getToken()).isEqualTo(firstToken);
+        assertThat(UserService.getTokenGrantStatistics().get("coalesced")).isEqualTo(coalesced);
+
+        long grants = keycloak.getPasswordGrants() + keycloak.getRefreshGrants();
+        assertThat(userService.refreshUserToken(user).getToken()).isEqualTo(user.getToken());
+        assertThat(keycloak.getPasswordGrants() + keycloak.getRefreshGrants()).isEqualTo(grants);
+    }
+
+    @Test
+    public void checkSkippedUserIsCreatedAgainWhenTokenIsNotGranted() throws IOException {
+        keycloak = new StubTokenEndpoint(300, 0);
+        Path stateFile = Files.createTempFile("users", ".state");
+        System.setProperty("differentialProvisioning", "true");
+        System.setProperty("userProvisioningStateFile", stateFile.toString());
+        try {
+            User user = createUser("deleted-officer");
+            String scope = keycloak.getUrl() + "|null";
+            UserProvisioningState.markProvisioned(scope, user);
+            AtomicInteger creations = new AtomicInteger();
+            KeycloakClient keycloakClient = new KeycloakClient(new Service(keycloak.getUrl(), user)) {
+                @Override
+                public void createUser(User created) {
+                    creations.incrementAndGet();
+                }
+            };
+            UserService userService = new UserService(Map.of(user.getLogin(), user), keycloakClient,
+                    new KeycloakTokenService(keycloak.getUrl()));
+
+            userService.getUser(user.getLogin());
+            assertThat(creations).hasValue(0);
+
+            keycloak.respondWith(401, "{\"error\":\"invalid_grant\","
+                    + "\"error_description\":\"Invalid user credentials\"}");
+            String token = userService.copyWithValidToken(user).getToken();
+
+            assertThat(creations).hasValue(1);
+            assertThat(token).isEqualTo(keycloak.getAccessTokens().get(0));
+            assertThat(keycloak.getPasswordGrants()).isEqualTo(2);
+            assertThat(UserProvisioningState.isProvisioned(scope, user)).isTrue();
+        } finally {
+            System.clearProperty("differentialProvisioning");
+            System.clearProperty("userProvisioningStateFile");
+            Files.deleteIfExists(stateFile);
+            Files.deleteIfExists(stateFile.resolveSibling(stateFile.getFileName() + ".lock"));
+        }
+    }
+
+    private UserService createUserService(User user) {
+        return new UserService(Map.of(user.getLogin(), user), null, new KeycloakTokenService(keycloak.getUrl()));
+    }
+
+    private static User createUser(String login) {
+        User user = new User(login, login);
+        user.setRealm("test-officer-portal");
+        user.setClientId("officer-portal");
+        return user;
+    }
+}